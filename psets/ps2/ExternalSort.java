@@ -0,0 +1,306 @@
+/*
+ * ExternalSort.java
+ *
+ * Sorts files of ints that are too large to fit in memory.
+ *
+ * Usage:
+ *
+ *     java ExternalSort <input file> <output file> [ints per run]
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExternalSort - an external-memory sort for files of raw 32-bit
+ * little-endian ints.  The input is memory-mapped and read one chunk
+ * of runLength ints at a time.  Each chunk is sorted in memory with
+ * Sort.quickSort and spilled to a temporary run file.  The sorted runs
+ * are then merged into the output file with a k-way merge, which uses
+ * a binary min-heap to find the run holding the smallest next value.
+ * Only one chunk, plus a small buffer per run, needs to be in memory
+ * at a time.
+ */
+public class ExternalSort {
+    /* the default number of ints per in-memory run (64 MB) */
+    public static final int DEFAULT_RUN_LENGTH = 16 * 1024 * 1024;
+    
+    /* size in bytes of the buffers used to read runs and write output */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    /*
+     * the most runs that are merged at once; if there are more, they
+     * are merged in several passes so that we never have too many
+     * files open
+     */
+    private static final int MAX_FAN_IN = 128;
+    
+    /*
+     * RunReader - reads the ints of one sorted run file, a buffer at a
+     * time.  current is the next int of the run, valid while hasNext
+     * is true.
+     */
+    private static class RunReader {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private int current;
+        private boolean hasNext;
+        
+        private RunReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();      // start out empty
+            advance();
+        }
+        
+        /*
+         * advance - reads the next int of the run into current, or sets
+         * hasNext to false if the run is exhausted.
+         */
+        private void advance() throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                buffer.compact();
+                while (buffer.position() < Integer.BYTES) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                if (buffer.remaining() < Integer.BYTES) {
+                    hasNext = false;
+                    return;
+                }
+            }
+            current = buffer.getInt();
+            hasNext = true;
+        }
+        
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+    
+    /*
+     * IntWriter - writes ints to a file through a direct buffer.
+     */
+    private static class IntWriter {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        
+        private IntWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                       StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        
+        private void write(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+        
+        private void write(int[] values, int count) throws IOException {
+            int i = 0;
+            while (i < count) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush();
+                }
+                int n = Math.min(count - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+            }
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        private void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+    
+    /**
+     * sort - sorts the ints in the file inFile into the file outFile,
+     * holding at most runLength ints in memory at a time.
+     */
+    public static void sort(Path inFile, Path outFile, int runLength) throws IOException {
+        if (runLength < 1 || runLength > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalArgumentException("invalid run length: " + runLength);
+        }
+        
+        ArrayList<Path> runs = new ArrayList<Path>();
+        try {
+            /* Phase 1: sort each chunk of the input and spill it to a run file. */
+            try (FileChannel in = FileChannel.open(inFile, StandardOpenOption.READ)) {
+                long size = in.size();
+                if (size % Integer.BYTES != 0) {
+                    throw new IllegalArgumentException(inFile + " does not contain a whole number of ints");
+                }
+                
+                long numInts = size / Integer.BYTES;
+                int[] chunk = new int[(int)Math.min(runLength, numInts)];
+                for (long start = 0; start < numInts; start += runLength) {
+                    int len = (int)Math.min(runLength, numInts - start);
+                    if (len != chunk.length) {
+                        chunk = new int[len];      // only for the last chunk
+                    }
+                    
+                    MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY,
+                                                     start * Integer.BYTES,
+                                                     (long)len * Integer.BYTES);
+                    IntBuffer ints = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                    ints.get(chunk, 0, len);
+                    Sort.quickSort(chunk);
+                    
+                    Path run = Files.createTempFile(tempDir(outFile), "run", ".tmp");
+                    runs.add(run);
+                    IntWriter writer = new IntWriter(run);
+                    writer.write(chunk, len);
+                    writer.close();
+                }
+            }
+            
+            /*
+             * Phase 2: merge the runs, MAX_FAN_IN at a time, until
+             * they can all be merged into the output file at once.
+             */
+            while (runs.size() > MAX_FAN_IN) {
+                ArrayList<Path> merged = new ArrayList<Path>();
+                try {
+                    for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                        Path run = Files.createTempFile(tempDir(outFile), "run", ".tmp");
+                        merged.add(run);
+                        merge(runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size())), run);
+                    }
+                } finally {
+                    for (Path run : runs) {
+                        Files.deleteIfExists(run);
+                    }
+                    runs = merged;
+                }
+            }
+            merge(runs, outFile);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+    
+    /** sort, using DEFAULT_RUN_LENGTH ints per run */
+    public static void sort(Path inFile, Path outFile) throws IOException {
+        sort(inFile, outFile, DEFAULT_RUN_LENGTH);
+    }
+    
+    /*
+     * tempDir - returns the directory in which to put the run files:
+     * the one that will hold the output, so that the runs end up on
+     * the same disk as the result.
+     */
+    private static Path tempDir(Path outFile) {
+        Path dir = outFile.toAbsolutePath().getParent();
+        return (dir == null ? Paths.get(".") : dir);
+    }
+    
+    /*
+     * merge - performs a k-way merge of the sorted run files into
+     * outFile.  heap holds the indices of the runs that still have
+     * values, arranged as a binary min-heap ordered by each run's
+     * current value.
+     */
+    private static void merge(List<Path> runs, Path outFile) throws IOException {
+        RunReader[] readers = new RunReader[runs.size()];
+        int[] heap = new int[runs.size()];
+        int heapSize = 0;
+        IntWriter writer = new IntWriter(outFile);
+        
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i));
+                if (readers[i].hasNext) {
+                    heap[heapSize] = i;
+                    heapSize++;
+                }
+            }
+            for (int i = heapSize/2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, readers);
+            }
+            
+            while (heapSize > 0) {
+                RunReader smallest = readers[heap[0]];
+                writer.write(smallest.current);
+                smallest.advance();
+                
+                if (!smallest.hasNext) {
+                    heapSize--;
+                    heap[0] = heap[heapSize];
+                }
+                siftDown(heap, heapSize, 0, readers);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+            writer.close();
+        }
+    }
+    
+    /*
+     * siftDown - sifts the run index in heap[i] down to its proper
+     * place in the min-heap of size heapSize.
+     */
+    private static void siftDown(int[] heap, int heapSize, int i, RunReader[] readers) {
+        int toSift = heap[i];
+        int key = readers[toSift].current;
+        int child = 2*i + 1;
+        
+        while (child < heapSize) {
+            if (child + 1 < heapSize &&
+                readers[heap[child + 1]].current < readers[heap[child]].current) {
+                child++;
+            }
+            if (key <= readers[heap[child]].current) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+            child = 2*i + 1;
+        }
+        
+        heap[i] = toSift;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: java ExternalSort <input file> <output file> [ints per run]");
+            return;
+        }
+        
+        int runLength = DEFAULT_RUN_LENGTH;
+        if (args.length > 2) {
+            runLength = Integer.parseInt(args[2]);
+        }
+        sort(Paths.get(args[0]), Paths.get(args[1]), runLength);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * GenericSort.java
+ *
+ * Sorting methods for arrays of objects.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * GenericSort - a class containing sorting methods for arrays of
+ * objects, ordered either by a Comparator or by a key extracted from
+ * each object.  All of the sorts are stable: objects that compare as
+ * equal stay in their original order.
+ *
+ * Arrays of Integer in natural (or reverse natural) order are sorted
+ * by their int values with sortByIntKey, which is much faster than
+ * comparing boxed values.  The elements are moved rather than boxed
+ * again, so the array ends up holding the same Integer objects.
+ */
+public class GenericSort {
+    /* subarrays with at most this many elements are insertion sorted */
+    private static final int INSERTION_CUTOFF = 32;
+    
+    /**
+     * sort - sorts the array using the specified comparator.  If c is
+     * null, the elements must be Comparable and are sorted in their
+     * natural order.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        if (a.length < 2) {
+            return;
+        }
+        
+        if (a instanceof Integer[] && sortIntegers((Integer[])a, c)) {
+            return;
+        }
+        
+        if (c == null) {
+            c = (Comparator<? super T>)Comparator.naturalOrder();
+        }
+        T[] temp = a.clone();
+        mSort(a, temp, 0, a.length - 1, c);
+    }
+    
+    /**
+     * sort - sorts an array of Comparable objects in their natural order.
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] a) {
+        sort(a, null);
+    }
+    
+    /*
+     * sortIntegers - the fast path for Integer arrays.  If c is null
+     * or one of the JDK's natural/reverse order comparators, sorts the
+     * array by its int values and returns true; otherwise returns
+     * false and leaves the array alone.  ~x reverses the order of the
+     * ints without overflowing, as -x would for Integer.MIN_VALUE.
+     */
+    private static boolean sortIntegers(Integer[] a, Comparator<?> c) {
+        boolean reverse;
+        if (c == null || c == Comparator.naturalOrder()) {
+            reverse = false;
+        } else if (c == Comparator.reverseOrder()) {
+            reverse = true;
+        } else {
+            return false;
+        }
+        
+        /* Unboxing throws a NullPointerException on nulls, like compareTo. */
+        if (reverse) {
+            sortByIntKey(a, x -> ~x);
+        } else {
+            sortByIntKey(a, x -> x);
+        }
+        return true;
+    }
+    
+    /**
+     * sortByIntKey - sorts the array by the int key that the specified
+     * function extracts from each element.  Each key is extracted only
+     * once.  Each key is packed together with its element's position
+     * into a long, the longs are sorted, and every element is then
+     * moved once to its final position.
+     */
+    public static <T> void sortByIntKey(T[] a, ToIntFunction<? super T> key) {
+        int n = a.length;
+        if (n < 2) {
+            return;
+        }
+        
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long)key.applyAsInt(a[i]) << 32) | i;
+        }
+        
+        Arrays.sort(packed);
+        
+        T[] orig = a.clone();
+        for (int i = 0; i < n; i++) {
+            a[i] = orig[(int)packed[i]];
+        }
+    }
+    
+    /**
+     * sortByKey - sorts the array by the Comparable key that the
+     * specified function extracts from each element.  The keys are
+     * extracted once, up front, and cached, so that the function is
+     * called n times rather than twice per comparison.
+     */
+    public static <T, K extends Comparable<? super K>> void sortByKey(
+        T[] a, Function<? super T, ? extends K> key)
+    {
+        int n = a.length;
+        if (n < 2) {
+            return;
+        }
+        
+        /* Sort the positions of the elements by their cached keys. */
+        Object[] keys = new Object[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = key.apply(a[i]);
+            order[i] = i;
+        }
+        
+        Comparator<Integer> byKey = new Comparator<Integer>() {
+            @SuppressWarnings("unchecked")
+            public int compare(Integer i, Integer j) {
+                return ((K)keys[i]).compareTo((K)keys[j]);
+            }
+        };
+        Integer[] temp = order.clone();
+        mSort(order, temp, 0, n - 1, byKey);
+        
+        T[] orig = a.clone();
+        for (int i = 0; i < n; i++) {
+            a[i] = orig[order[i]];
+        }
+    }
+    
+    /*
+     * insertionSort - sorts a[first:last] using insertion sort.
+     */
+    private static <T> void insertionSort(T[] a, int first, int last,
+                                          Comparator<? super T> c) {
+        for (int i = first + 1; i <= last; i++) {
+            if (c.compare(a[i], a[i-1]) < 0) {
+                T toInsert = a[i];
+                
+                int j = i;
+                do {
+                    a[j] = a[j - 1];
+                    j = j - 1;
+                } while (j > first && c.compare(toInsert, a[j-1]) < 0);
+                
+                a[j] = toInsert;
+            }
+        }
+    }
+    
+    /*
+     * merge - merges the sorted subarrays a[leftStart:leftEnd] and
+     * a[rightStart:rightEnd] using temp.  Taking from the left
+     * subarray when the elements are equal keeps the sort stable.
+     */
+    private static <T> void merge(T[] a, T[] temp, int leftStart, int leftEnd,
+                                  int rightStart, int rightEnd,
+                                  Comparator<? super T> c) {
+        int i = leftStart;    // index into left subarray
+        int j = rightStart;   // index into right subarray
+        int k = leftStart;    // index into temp
+        
+        while (i <= leftEnd && j <= rightEnd) {
+            if (c.compare(a[j], a[i]) < 0) {
+                temp[k++] = a[j++];
+            } else {
+                temp[k++] = a[i++];
+            }
+        }
+        
+        while (i <= leftEnd) {
+            temp[k++] = a[i++];
+        }
+        while (j <= rightEnd) {
+            temp[k++] = a[j++];
+        }
+        
+        System.arraycopy(temp, leftStart, a, leftStart, rightEnd - leftStart + 1);
+    }
+    
+    /*
+     * mSort - recursive method for mergesort, which insertion sorts
+     * small subarrays and skips merges whose halves are already in
+     * order.
+     */
+    private static <T> void mSort(T[] a, T[] temp, int start, int end,
+                                  Comparator<? super T> c) {
+        if (end - start < INSERTION_CUTOFF) {
+            insertionSort(a, start, end, c);
+            return;
+        }
+        
+        int middle = (start + end)/2;
+        mSort(a, temp, start, middle, c);
+        mSort(a, temp, middle + 1, end, c);
+        if (c.compare(a[middle + 1], a[middle]) < 0) {
+            merge(a, temp, start, middle, middle + 1, end, c);
+        }
+    }
+    
+    public static void main(String[] args) {
+        String[] words = {"pear", "fig", "banana", "kiwi", "apple", "date"};
+        
+        GenericSort.sort(words);
+        System.out.println("natural order:\t" + Arrays.toString(words));
+        
+        GenericSort.sortByIntKey(words, String::length);
+        System.out.println("by length:\t" + Arrays.toString(words));
+        
+        GenericSort.sortByKey(words, w -> w.charAt(w.length() - 1));
+        System.out.println("by last letter:\t" + Arrays.toString(words));
+        
+        Integer[] nums = {5, -3, 12, 0, 7, -3};
+        GenericSort.sort(nums, Comparator.reverseOrder());
+        System.out.println("Integers, reversed:\t" + Arrays.toString(nums));
+    }
+}
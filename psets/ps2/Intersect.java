@@ -0,0 +1,462 @@
+/*
+ * Intersect.java
+ *
+ * Intersection of int arrays, such as posting lists.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Intersect - a class containing methods that find the values common
+ * to two or more int arrays.  Unlike Problem8.findIntersect, these
+ * methods never modify their inputs, and they return an array that
+ * holds exactly the distinct common values, in increasing order.
+ *
+ * intersect picks a strategy based on the inputs:
+ *
+ *   - if both arrays are sorted, a merge of the two, or, when one is
+ *     much shorter than the other, a galloping search for each value
+ *     of the shorter one in the longer one
+ *   - if the values fall in a small range, a bitmap of that range
+ *   - otherwise, a hash table of the shorter array, probed with the
+ *     values of the longer one
+ */
+public class Intersect {
+    /*
+     * if the longer sorted array is at least this many times as long
+     * as the shorter one, galloping beats a merge
+     */
+    private static final int GALLOP_RATIO = 32;
+    
+    /*
+     * a bitmap is used if the range of values is at most this many
+     * times the total length of the arrays...
+     */
+    private static final int BITMAP_DENSITY = 8;
+    
+    /* ...and at most this many values wide */
+    private static final long BITMAP_MAX_RANGE = 1L << 28;
+    
+    /*
+     * parallelIntersectSorted gives each task at least this many
+     * elements of the shorter array
+     */
+    private static final int PARALLEL_MIN_RANGE = 1 << 16;
+    
+    /*
+     * blockIntersect merges at most this many steps between checks
+     * for blocks that can be skipped
+     */
+    private static final int MERGE_BLOCK = 8;
+    
+    /**
+     * intersect - returns the distinct values that appear in both a
+     * and b, in increasing order.
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        if (a.length > b.length) {      // make a the shorter array
+            int[] temp = a;
+            a = b;
+            b = temp;
+        }
+        if (a.length == 0) {
+            return new int[0];
+        }
+        
+        if (isSorted(a) && isSorted(b)) {
+            return intersectSorted(a, b);
+        }
+        
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int x : a) {
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+        long range = (long)max - min + 1;
+        if (range <= BITMAP_MAX_RANGE &&
+            range <= (long)BITMAP_DENSITY * (a.length + b.length)) {
+            return intersectBitmap(a, b, min, (int)range);
+        }
+        
+        return intersectHash(a, b);
+    }
+    
+    /**
+     * intersectSorted - returns the distinct values that appear in
+     * both a and b, which must both be sorted in increasing order.
+     */
+    public static int[] intersectSorted(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] temp = a;
+            a = b;
+            b = temp;
+        }
+        
+        int[] result = new int[a.length];
+        int count;
+        if ((long)a.length * GALLOP_RATIO <= b.length) {
+            count = gallopIntersect(a, b, result);
+        } else {
+            count = mergeIntersect(a, 0, a.length, b, 0, b.length, result, 0);
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    /**
+     * intersectAll - returns the distinct values that appear in all of
+     * the specified arrays, in increasing order.  The arrays are
+     * intersected from shortest to longest, so that the intermediate
+     * result shrinks as quickly as possible.  Because the result
+     * so far is always sorted, each later array that is sorted too
+     * is intersected with it without hashing.
+     */
+    public static int[] intersectAll(int[]... arrays) {
+        if (arrays.length == 0) {
+            throw new IllegalArgumentException("no arrays to intersect");
+        }
+        
+        int[][] byLength = arrays.clone();
+        Arrays.sort(byLength, (x, y) -> Integer.compare(x.length, y.length));
+        
+        int[] result;
+        if (byLength.length == 1) {
+            result = distinctSorted(byLength[0]);
+        } else {
+            result = intersect(byLength[0], byLength[1]);
+        }
+        for (int i = 2; i < byLength.length && result.length > 0; i++) {
+            result = intersect(result, byLength[i]);
+        }
+        return result;
+    }
+    
+    /*
+     * isSorted - returns true if arr is in nondecreasing order.
+     */
+    static boolean isSorted(int[] arr) {
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i] < arr[i-1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * distinctSorted - returns the distinct values of arr in
+     * increasing order.
+     */
+    private static int[] distinctSorted(int[] arr) {
+        int[] copy = arr.clone();
+        if (!isSorted(copy)) {
+            Sort.quickSort(copy);
+        }
+        int count = 0;
+        for (int i = 0; i < copy.length; i++) {
+            if (i == 0 || copy[i] != copy[i-1]) {
+                copy[count++] = copy[i];
+            }
+        }
+        return Arrays.copyOf(copy, count);
+    }
+    
+    /*
+     * mergeIntersect - the two-pointer loop of Problem8.findIntersect,
+     * applied to the sorted ranges a[aStart:aEnd-1] and b[bStart:bEnd-1].
+     * Writes the distinct common values into result starting at
+     * position pos and returns how many it wrote.  Only the first of
+     * a run of equal values is written.
+     */
+    static int mergeIntersect(int[] a, int aStart, int aEnd,
+                              int[] b, int bStart, int bEnd,
+                              int[] result, int pos) {
+        int i = aStart;
+        int j = bStart;
+        int k = pos;
+        boolean any = false;      // has anything been written yet?
+        
+        while (i < aEnd && j < bEnd) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                if (!any || result[k-1] != a[i]) {
+                    result[k++] = a[i];
+                    any = true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return k - pos;
+    }
+    
+    /*
+     * gallopIntersect - intersects a short sorted array a with a much
+     * longer sorted array b.  For each distinct value of a, it finds
+     * the first value of b that is >= it by taking steps of 1, 2, 4,
+     * ... from where the previous search ended, then binary searching
+     * the last step.  This takes O(|a| log(|b|/|a|)) time rather than
+     * O(|a| + |b|).
+     */
+    private static int gallopIntersect(int[] a, int[] b, int[] result) {
+        int count = 0;
+        int lo = 0;         // b[0:lo-1] are all < the current value of a
+        
+        for (int i = 0; i < a.length && lo < b.length; i++) {
+            int x = a[i];
+            if (i > 0 && x == a[i-1]) {
+                continue;
+            }
+            
+            /* Gallop until b[hi] >= x (or hi is past the end). */
+            int step = 1;
+            int hi = lo;
+            while (hi < b.length && b[hi] < x) {
+                lo = hi + 1;
+                hi = (int)Math.min((long)hi + step, b.length);
+                step *= 2;
+            }
+            
+            /* Binary search b[lo:hi] for the first value >= x. */
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (b[mid] < x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            
+            if (lo < b.length && b[lo] == x) {
+                result[count++] = x;
+                lo++;
+            }
+        }
+        return count;
+    }
+    
+    /*
+     * intersectBitmap - intersects two unsorted arrays whose common
+     * values all lie in [min, min + range - 1], the range of a.  The
+     * values of a are marked in one bitmap, values of b that hit a
+     * mark are marked in a second, and reading the second bitmap in
+     * order gives the result already sorted and without duplicates.
+     */
+    private static int[] intersectBitmap(int[] a, int[] b, int min, int range) {
+        long[] inA = new long[(range + 63) >>> 6];
+        long[] inBoth = new long[inA.length];
+        
+        for (int x : a) {
+            int bit = x - min;
+            inA[bit >>> 6] |= 1L << bit;
+        }
+        
+        int count = 0;
+        for (int x : b) {
+            long bit = (long)x - min;
+            if (bit >= 0 && bit < range) {
+                int word = (int)bit >>> 6;
+                long mask = 1L << bit;
+                if ((inA[word] & mask) != 0 && (inBoth[word] & mask) == 0) {
+                    inBoth[word] |= mask;
+                    count++;
+                }
+            }
+        }
+        
+        int[] result = new int[count];
+        int k = 0;
+        for (int word = 0; word < inBoth.length; word++) {
+            long bits = inBoth[word];
+            while (bits != 0) {
+                result[k++] = min + (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;      // clear the lowest set bit
+            }
+        }
+        return result;
+    }
+    
+    /*
+     * intersectHash - intersects two unsorted arrays by putting the
+     * values of the shorter one, a, into an open-addressing hash
+     * table and looking up each value of b.  A value is removed from
+     * the table when it is found, so that it is only reported once.
+     */
+    private static int[] intersectHash(int[] a, int[] b) {
+        int capacity = 16;
+        while (capacity < 2 * a.length) {
+            capacity *= 2;
+        }
+        int mask = capacity - 1;
+        int[] keys = new int[capacity];
+        byte[] state = new byte[capacity];      // 0 = empty, 1 = in use, 2 = found
+        
+        for (int x : a) {
+            int i = hash(x) & mask;
+            while (state[i] != 0 && keys[i] != x) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = x;
+            state[i] = 1;
+        }
+        
+        int[] result = new int[a.length];
+        int count = 0;
+        for (int x : b) {
+            int i = hash(x) & mask;
+            while (state[i] != 0 && keys[i] != x) {
+                i = (i + 1) & mask;
+            }
+            if (state[i] == 1) {
+                result[count++] = x;
+                state[i] = 2;
+            }
+        }
+        
+        result = Arrays.copyOf(result, count);
+        if (count > 1) {
+            Sort.quickSort(result);
+        }
+        return result;
+    }
+    
+    /*
+     * hash - spreads the bits of x so that nearby values don't end
+     * up in nearby slots.
+     */
+    private static int hash(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * parallelIntersectSorted - intersects two large sorted arrays in
+     * parallel.  Writes the distinct common values into out in
+     * increasing order and returns how many there are.  out must be
+     * at least as long as the shorter of a and b, and it is the only
+     * space used for results.
+     *
+     * The shorter array is cut into equal ranges.  Each cut is moved
+     * back to the start of a run of equal values, and a binary search
+     * finds the matching cut in the longer array.  The ranges then
+     * cover disjoint sets of values and can be intersected
+     * independently.  Each range writes its results into out starting
+     * at the position of its first element in the shorter array, so
+     * the ranges can't overlap.  Finally, the results are moved
+     * together, which takes time proportional to the size of the
+     * result.
+     */
+    public static int parallelIntersectSorted(int[] a, int[] b, int[] out) {
+        if (a.length > b.length) {
+            int[] temp = a;
+            a = b;
+            b = temp;
+        }
+        if (out.length < a.length) {
+            throw new IllegalArgumentException("out must have room for " +
+                                               a.length + " values");
+        }
+        
+        int numRanges = Math.max(1, Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+                                             a.length / PARALLEL_MIN_RANGE));
+        int[] aCut = new int[numRanges + 1];
+        int[] bCut = new int[numRanges + 1];
+        aCut[numRanges] = a.length;
+        bCut[numRanges] = b.length;
+        for (int r = 1; r < numRanges; r++) {
+            int splitter = a[(int)((long)r * a.length / numRanges)];
+            aCut[r] = lowerBound(a, splitter);
+            bCut[r] = lowerBound(b, splitter);
+        }
+        
+        int[] counts = new int[numRanges];
+        int[] shorter = a;
+        int[] longer = b;
+        IntStream.range(0, numRanges).parallel().forEach(r -> {
+            counts[r] = blockIntersect(shorter, aCut[r], aCut[r + 1],
+                                       longer, bCut[r], bCut[r + 1], out, aCut[r]);
+        });
+        
+        int count = 0;
+        for (int r = 0; r < numRanges; r++) {
+            System.arraycopy(out, aCut[r], out, count, counts[r]);
+            count += counts[r];
+        }
+        return count;
+    }
+    
+    /*
+     * lowerBound - returns the index of the first element of the
+     * sorted array arr that is >= key, or arr.length if there is none.
+     */
+    private static int lowerBound(int[] arr, int key) {
+        int lo = 0;
+        int hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /*
+     * blockIntersect - like mergeIntersect, but the indices are
+     * advanced by adding the results of the comparisons, rather than
+     * by choosing among three branches.  On random data those
+     * branches are mispredicted about half the time.  Before every
+     * MERGE_BLOCK steps of merging, it also looks 4 values ahead in
+     * each array, so that a run of values that are all smaller than
+     * the next value of the other array is skipped 4 at a time.
+     */
+    private static int blockIntersect(int[] a, int aStart, int aEnd,
+                                      int[] b, int bStart, int bEnd,
+                                      int[] out, int pos) {
+        int i = aStart;
+        int j = bStart;
+        int k = pos;
+        
+        while (i < aEnd && j < bEnd) {
+            /* Skip whole blocks of either array that lie below the other. */
+            while (i + 4 <= aEnd && a[i + 3] < b[j]) {
+                i += 4;
+            }
+            if (i == aEnd) {
+                break;          // all of a's block lies below b[j]
+            }
+            while (j + 4 <= bEnd && b[j + 3] < a[i]) {
+                j += 4;
+            }
+            if (j == bEnd) {
+                break;
+            }
+            
+            /*
+             * Each step advances i or j or both by 1, so neither can
+             * pass the end of its range within this many steps.
+             */
+            int steps = Math.min(MERGE_BLOCK, Math.min(aEnd - i, bEnd - j));
+            for (int step = 0; step < steps; step++) {
+                int x = a[i];
+                int y = b[j];
+                if (x == y && (k == pos || out[k - 1] != x)) {
+                    out[k++] = x;
+                }
+                i += (x <= y) ? 1 : 0;
+                j += (y <= x) ? 1 : 0;
+            }
+        }
+        return k - pos;
+    }
+}
@@ -1,6 +1,111 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.IntStream;
 
 public class Problem7{
     
+    /*
+     * PairCallback - receives each pair of values found by the hashed
+     * versions of pairSums.  first is the value that appeared earlier
+     * in the input.
+     */
+    public interface PairCallback {
+        void pair(int first, int second);
+    }
+    
+    /*
+     * IntCounts - an open-addressing hash table, stored in two int
+     * arrays, that counts how many times each int value has been
+     * seen.  A count of 0 marks an empty slot.  Using primitive arrays
+     * rather than a HashMap<Integer, Integer> avoids creating objects
+     * for each value.
+     */
+    private static class IntCounts {
+        private int[] keys;
+        private int[] counts;
+        private int size;
+        
+        private IntCounts(int expected) {
+            int capacity = 16;
+            while (capacity < 2 * expected) {
+                capacity *= 2;
+            }
+            keys = new int[capacity];
+            counts = new int[capacity];
+        }
+        
+        /* slot - returns the slot that holds key, or the empty slot where it would go */
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int h = key * 0x9E3779B9;       // spread the bits of key
+            h ^= h >>> 16;                  // and mix the high bits into the low ones
+            int i = h & mask;
+            while (counts[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;                     // linear probing
+            }
+            return i;
+        }
+        
+        private int get(int key) {
+            return counts[slot(key)];
+        }
+        
+        private void increment(int key) {
+            int i = slot(key);
+            if (counts[i] == 0) {
+                keys[i] = key;
+                size++;
+                if (2 * size > keys.length) {
+                    counts[i] = 1;
+                    grow();
+                    return;
+                }
+            }
+            counts[i]++;
+        }
+        
+        /* grow - doubles the size of the table, keeping it at most half full */
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[2 * oldKeys.length];
+            counts = new int[2 * oldCounts.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int j = slot(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    counts[j] = oldCounts[i];
+                }
+            }
+        }
+    }
+    
+    /*
+     * PairFinder - the state of one pairSums scan: the target sum, the
+     * callback and the counts of the values seen so far.  For each new
+     * value x, every earlier value equal to k - x forms a pair with x.
+     */
+    private static class PairFinder {
+        private int k;
+        private PairCallback callback;
+        private IntCounts seen;
+        
+        private PairFinder(int k, PairCallback callback, int expected) {
+            this.k = k;
+            this.callback = callback;
+            seen = new IntCounts(expected);
+        }
+        
+        private void accept(int x) {
+            int other = k - x;
+            int matches = seen.get(other);
+            for (int i = 0; i < matches; i++) {
+                callback.pair(other, x);
+            }
+            seen.increment(x);
+        }
+    }
+    
     public static void main(String [] args){
         
         int [] test1 = {12, 4};
@@ -25,6 +130,26 @@ public class Problem7{
         pairSumsImproved(12, test3);
         System.out.println("pairSumsImproved third test:");
         pairSumsImproved(14, test4);
+        
+        PairCallback print = (a, b) -> System.out.println(a + " + " + b + " = 14");
+        int [] test5 = {1, 2, 3, 4, 5, 6, 7, 8, 9, 5, 6, 7, 5, 4, 5};
+        System.out.println("pairSumsHashed test:");
+        pairSumsHashed(14, test5, print);
+        System.out.println("IntStream test:");
+        pairSums(14, IntStream.of(test5), print);
+        
+        // more distinct values than fit in 16 bits of hash
+        int [] test6 = new int[200000];
+        for (int i = 0; i < test6.length; i++) {
+            test6[i] = 3 * i;
+        }
+        int [] found = new int[1];
+        long start = System.nanoTime();
+        pairSumsHashed(3 * (test6.length - 1), test6, (a, b) -> found[0]++);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("pairSumsHashed on " + test6.length + " distinct values: " +
+                           found[0] + " pairs (expected " + test6.length / 2 + ") in " +
+                           elapsed / 1000000 + " ms");
     }
     
     /*
@@ -73,6 +198,89 @@ public class Problem7{
         }
                 
     }
+    
+    /*
+     * pairSumsHashed finds the same pairs as pairSums, including pairs of
+     * equal values and pairs that use repeated values, but in one pass
+     * using a hash table of the values seen so far, so it is O(n) (plus
+     * the number of pairs reported).  Unlike pairSumsImproved, it doesn't
+     * modify the array.
+     */
+    public static void pairSumsHashed(int k, int[] arr, PairCallback callback){
+        PairFinder finder = new PairFinder(k, callback, arr.length);
+        for (int i = 0; i < arr.length; i++){
+            finder.accept(arr[i]);
+        }
+    }
+    
+    /*
+     * pairSums for a stream of values, which are processed one at a time
+     * as they arrive, so the stream never has to be stored.  Memory use is
+     * proportional to the number of distinct values.
+     */
+    public static void pairSums(int k, IntStream values, PairCallback callback){
+        PairFinder finder = new PairFinder(k, callback, 16);
+        values.sequential().forEach(finder::accept);
+    }
+    
+    /*
+     * pairSums for a stream of whitespace-separated decimal ints, such as
+     * a file. The bytes are parsed by hand through a small buffer, rather
+     * than with a Scanner, so that no String is created for each value.
+     */
+    public static void pairSums(int k, InputStream in, PairCallback callback) throws IOException{
+        PairFinder finder = new PairFinder(k, callback, 16);
+        byte[] buffer = new byte[64 * 1024];
+        
+        long value = 0;
+        boolean negative = false;
+        int digits = 0;
+        boolean inToken = false;
+        
+        int n;
+        while ((n = in.read(buffer)) > 0){
+            for (int i = 0; i < n; i++){
+                byte b = buffer[i];
+                if (b >= '0' && b <= '9'){
+                    value = value * 10 + (b - '0');
+                    digits++;
+                    if (value > (long)Integer.MAX_VALUE + 1){
+                        throw new NumberFormatException("value out of int range");
+                    }
+                    inToken = true;
+                } else if (b == '-' && !inToken){
+                    negative = true;
+                    inToken = true;
+                } else if (b == ' ' || b == '\n' || b == '\r' || b == '\t'){
+                    if (inToken){
+                        finder.accept(toInt(value, negative, digits));
+                        value = 0;
+                        negative = false;
+                        digits = 0;
+                        inToken = false;
+                    }
+                } else {
+                    throw new NumberFormatException("unexpected character '" + (char)b + "'");
+                }
+            }
+        }
+        if (inToken){
+            finder.accept(toInt(value, negative, digits));
+        }
+    }
+    
+    /*
+     * toInt - helper for the InputStream version of pairSums that checks
+     * and returns a parsed value.
+     */
+    private static int toInt(long value, boolean negative, int digits){
+        if (digits == 0){
+            throw new NumberFormatException("'-' without digits");
+        }
+        long result = negative ? -value : value;
+        if (result > Integer.MAX_VALUE){
+            throw new NumberFormatException("value out of int range");
+        }
+        return (int)result;
+    }
 }
-
-        
\ No newline at end of file
@@ -5,8 +5,37 @@ public class Problem8{
     public static void main(String [] args){
         int [] arr1 = {3, 4, 1, 2, 5, 6, 7};
         int [] arr2 = {4, 6, 7, 8, 9, 2};
+        System.out.println(Arrays.toString(Intersect.intersect(arr1, arr2)));
         int [] intersect = findIntersect(arr1, arr2);
         System.out.println(Arrays.toString(intersect));
+        
+        // all of the first array lies below the second
+        int [] below = {1, 2, 3, 4};
+        int [] above = {10, 11, 12, 13, 14};
+        int [] out = new int[below.length];
+        int disjoint = Intersect.parallelIntersectSorted(below, above, out);
+        if (disjoint != 0) {
+            throw new IllegalStateException("parallel, disjoint: found " + disjoint +
+                                            " common values");
+        }
+        System.out.println("parallel, disjoint: no common values");
+        
+        // large arrays, split into ranges, some of which lie wholly below the other array
+        java.util.Random rand = new java.util.Random(15);
+        int [] big1 = new int[1 << 20];
+        int [] big2 = new int[1 << 20];
+        for (int i = 0; i < big1.length; i++) {
+            big1[i] = (i < big1.length / 2 ? rand.nextInt(1 << 20) : (1 << 21) + rand.nextInt(1 << 22));
+            big2[i] = (1 << 20) + rand.nextInt(1 << 22);
+        }
+        Arrays.sort(big1);
+        Arrays.sort(big2);
+        int [] bigOut = new int[big1.length];
+        int count = Intersect.parallelIntersectSorted(big1, big2, bigOut);
+        if (!Arrays.equals(Arrays.copyOf(bigOut, count), Intersect.intersectSorted(big1, big2))) {
+            throw new IllegalStateException("parallel, large: result differs from intersectSorted");
+        }
+        System.out.println("parallel, large: " + count + " common values, same as intersectSorted");
     }
     
     public static int[] findIntersect(int[] arr1, int[] arr2){
@@ -14,6 +14,14 @@
  *     Sort.bubbleSort(arr);
  */
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 /**
  * Sort - a class containing implementations of various array-sorting
  * algorithms.  Each method takes an array of ints.  The methods
@@ -23,6 +31,44 @@
 public class Sort {
     public static final int NUM_ELEMENTS = 10;
     
+    /*
+     * the default size below which parallelMergeSort stops forking
+     * new tasks and sorts the subarray on the current thread
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+    
+    /*
+     * subarrays with at most this many elements are sorted by
+     * networkSort at the bottom of quickSort and mergeSort
+     */
+    private static final int NETWORK_MAX = 32;
+    
+    /*
+     * NETWORKS[n] is a sorting network for n elements: a fixed list of
+     * compare-exchange steps, each one packed as (i << 6) | j with
+     * i < j.  See buildNetworks.
+     */
+    private static final int[][] NETWORKS = buildNetworks(NETWORK_MAX);
+    
+    /* radix sort processes keys one 8-bit digit at a time */
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_PASSES = 32 / RADIX_BITS;
+    
+    /*
+     * the number of elements per task when radixSort computes its
+     * digit counts in parallel
+     */
+    private static final int HISTOGRAM_CHUNK = 1 << 16;
+    
+    /*
+     * parallelSampleSort draws this many samples per range when it
+     * chooses its splitters, and uses quickSort for arrays with fewer
+     * than SAMPLE_SORT_MIN elements
+     */
+    private static final int OVERSAMPLING = 16;
+    private static final int SAMPLE_SORT_MIN = 1 << 16;
+    
     /*
      * swap - swap the values of arr[a] and arr[b].
      * Used by several of the sorting algorithms below.
@@ -123,7 +169,11 @@ public class Sort {
         }
     }
     
-    /* partition - helper method for qSort */
+    /*
+     * partition - partitions arr[first:last] around its middle element,
+     * returning the index of the last element of the left subarray.
+     * quickSort itself now uses dualPivotSort, below.
+     */
     public static int partition(int[] arr, int first, int last) {
         int pivot = arr[(first + last)/2];
         int i = first - 1;  // index going left to right
@@ -151,21 +201,373 @@ public class Sort {
         }
     }
     
-    /* qSort - recursive method that does the work for quickSort */
-    private static void qSort(int[] arr, int first, int last) {
-        int split = partition(arr, first, last);
+    /*
+     * buildNetworks - builds sorting networks for 0 through max
+     * elements, where max is at most 64.
+     *
+     * The network for n elements is made from Batcher's odd-even
+     * mergesort network for the next power of 2, N >= n.  Padding the
+     * subarray with N - n copies of +infinity would not change the
+     * result, and a compare-exchange that touches one of those
+     * positions never moves anything, so those steps are simply left
+     * out.
+     */
+    private static int[][] buildNetworks(int max) {
+        int[][] networks = new int[max + 1][];
+        for (int n = 0; n <= max; n++) {
+            int size = 1;
+            while (size < n) {
+                size *= 2;
+            }
+            
+            int[] steps = new int[size * size];
+            int count = 0;
+            for (int p = 1; p < size; p *= 2) {
+                for (int k = p; k >= 1; k /= 2) {
+                    for (int j = k % p; j + k < size; j += 2*k) {
+                        for (int i = 0; i < Math.min(k, size - j - k); i++) {
+                            int lo = i + j;
+                            int hi = i + j + k;
+                            if (lo / (2*p) == hi / (2*p) && hi < n) {
+                                steps[count++] = (lo << 6) | hi;
+                            }
+                        }
+                    }
+                }
+            }
+            networks[n] = Arrays.copyOf(steps, count);
+        }
+        return networks;
+    }
+    
+    /*
+     * networkSort - sorts arr[first:last], which must have at most
+     * NETWORK_MAX elements, by applying a sorting network.  Each step
+     * is done with min and max rather than an if statement.  Unlike
+     * insertion sort, the sequence of steps doesn't depend on the
+     * data, so the loop has no branches to mispredict.
+     */
+    private static void networkSort(int[] arr, int first, int last) {
+        int[] network = NETWORKS[last - first + 1];
+        for (int k = 0; k < network.length; k++) {
+            int i = first + (network[k] >>> 6);
+            int j = first + (network[k] & 63);
+            int a = arr[i];
+            int b = arr[j];
+            arr[i] = Math.min(a, b);
+            arr[j] = Math.max(a, b);
+        }
+    }
+    
+    /*
+     * sort2 - puts arr[i] and arr[j] in order, where i < j.
+     */
+    private static void sort2(int[] arr, int i, int j) {
+        int a = arr[i];
+        int b = arr[j];
+        arr[i] = Math.min(a, b);
+        arr[j] = Math.max(a, b);
+    }
+    
+    /*
+     * heapSort - sorts arr[first:last] using heapsort.  Used by
+     * dualPivotSort when the recursion gets too deep, which bounds
+     * the worst case of quickSort at O(n log n).
+     */
+    private static void heapSort(int[] arr, int first, int last) {
+        int n = last - first + 1;
+        for (int i = n/2 - 1; i >= 0; i--) {
+            siftDown(arr, first, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, first, first + end);
+            siftDown(arr, first, 0, end);
+        }
+    }
+    
+    /*
+     * siftDown - helper method for heapSort.  Sifts the element in
+     * position i of the max-at-top heap stored in
+     * arr[first:first+size-1] down to its proper place.
+     */
+    private static void siftDown(int[] arr, int first, int i, int size) {
+        int toSift = arr[first + i];
+        int child = 2*i + 1;
         
-        if (first < split) {
-            qSort(arr, first, split);      // left subarray
+        while (child < size) {
+            if (child + 1 < size && arr[first + child + 1] > arr[first + child]) {
+                child++;
+            }
+            if (toSift >= arr[first + child]) {
+                break;
+            }
+            arr[first + i] = arr[first + child];
+            i = child;
+            child = 2*i + 1;
         }
-        if (last > split + 1) {
-            qSort(arr, split + 1, last);   // right subarray
+        
+        arr[first + i] = toSift;
+    }
+    
+    /*
+     * depthLimit - returns the recursion depth that dualPivotSort may
+     * reach before switching to heapsort: 2 * floor(log2(n)).
+     */
+    private static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+    
+    /*
+     * dualPivotSort - recursive method that does the work for
+     * quickSort.  Sorts arr[left:right] by partitioning it into three
+     * subarrays around two pivots p1 <= p2:
+     *
+     *     | < p1 | p1 | p1 <= x <= p2 | p2 | > p2 |
+     *
+     * The pivots are the second and fourth of five evenly spaced
+     * sample elements (an extension of median-of-three), which keeps
+     * the parts balanced on skewed inputs.  If the two pivots are
+     * equal, the range is dominated by one key, so we do a three-way
+     * partition into < p, == p and > p instead and never revisit the
+     * equal keys.  Small ranges are handed to networkSort, and
+     * ranges that are still being split once depth reaches 0 are
+     * handed to heapsort.
+     */
+    private static void dualPivotSort(int[] arr, int left, int right, int depth) {
+        int len = right - left + 1;
+        if (len <= NETWORK_MAX) {
+            networkSort(arr, left, right);
+            return;
+        }
+        if (depth == 0) {
+            heapSort(arr, left, right);
+            return;
+        }
+        depth--;
+        
+        /* Choose five evenly spaced sample elements and sort them. */
+        int seventh = (len >> 3) + (len >> 6) + 1;
+        int e3 = (left + right) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        sort2(arr, e1, e2);     // an optimal 9-step network for five elements
+        sort2(arr, e4, e5);
+        sort2(arr, e3, e5);
+        sort2(arr, e3, e4);
+        sort2(arr, e2, e5);
+        sort2(arr, e1, e4);
+        sort2(arr, e1, e3);
+        sort2(arr, e2, e4);
+        sort2(arr, e2, e3);
+        
+        if (arr[e2] == arr[e4]) {
+            /* Three-way partition around the single pivot p. */
+            int p = arr[e3];
+            int lt = left;      // arr[left:lt-1] < p
+            int gt = right;     // arr[gt+1:right] > p
+            int k = left;       // arr[lt:k-1] == p
+            while (k <= gt) {
+                if (arr[k] < p) {
+                    swap(arr, lt, k);
+                    lt++; k++;
+                } else if (arr[k] > p) {
+                    swap(arr, k, gt);
+                    gt--;
+                } else {
+                    k++;
+                }
+            }
+            
+            dualPivotSort(arr, left, lt - 1, depth);
+            dualPivotSort(arr, gt + 1, right, depth);
+            return;
+        }
+        
+        /* Move the pivots out of the way, to the ends of the range. */
+        int p1 = arr[e2];
+        int p2 = arr[e4];
+        swap(arr, e2, left);
+        swap(arr, e4, right);
+        
+        int less = left + 1;      // arr[left+1:less-1] < p1
+        int great = right - 1;    // arr[great+1:right-1] > p2
+        for (int k = less; k <= great; k++) {
+            if (arr[k] < p1) {
+                swap(arr, k, less);
+                less++;
+            } else if (arr[k] > p2) {
+                while (k < great && arr[great] > p2) {
+                    great--;
+                }
+                swap(arr, k, great);
+                great--;
+                if (arr[k] < p1) {
+                    swap(arr, k, less);
+                    less++;
+                }
+            }
+        }
+        
+        /* Put the pivots into their final positions. */
+        swap(arr, left, less - 1);
+        swap(arr, right, great + 1);
+        
+        dualPivotSort(arr, left, less - 2, depth);
+        dualPivotSort(arr, great + 2, right, depth);
+        
+        /*
+         * If the middle part is most of the range, it probably holds
+         * many copies of the pivots.  Move those out to its ends so
+         * that they don't take part in the recursive call.
+         */
+        if (less < e1 && great > e5) {
+            while (arr[less] == p1) {
+                less++;
+            }
+            while (arr[great] == p2) {
+                great--;
+            }
+            for (int k = less; k <= great; k++) {
+                if (arr[k] == p1) {
+                    swap(arr, k, less);
+                    less++;
+                } else if (arr[k] == p2) {
+                    while (k < great && arr[great] == p2) {
+                        great--;
+                    }
+                    swap(arr, k, great);
+                    great--;
+                    if (arr[k] == p1) {
+                        swap(arr, k, less);
+                        less++;
+                    }
+                }
+            }
         }
+        
+        dualPivotSort(arr, less, great, depth);
     }
     
-    /** quicksort */
+    /**
+     * quicksort - a dual-pivot quicksort with a sorting-network
+     * base case and a heapsort fallback, so it runs in O(n log n) time
+     * even in the worst case.
+     */
     public static void quickSort(int[] arr) {
-        qSort(arr, 0, arr.length - 1); 
+        dualPivotSort(arr, 0, arr.length - 1, depthLimit(arr.length));
+    }
+    
+    /**
+     * select - rearranges the array so that arr[k] holds the value that
+     * would be there if the array were sorted, with all elements before
+     * it <= arr[k] and all elements after it >= arr[k], and returns
+     * that value.  (select(arr, arr.length/2) finds a median.)
+     *
+     * Uses quickselect: after each call to partition, it continues in
+     * only the subarray that contains position k, which takes O(n)
+     * time on average.  As in quickSort, if it takes too many steps
+     * it switches to heapsort on the remaining subarray, which bounds
+     * the worst case at O(n log n).
+     */
+    public static int select(int[] arr, int k) {
+        if (k < 0 || k >= arr.length) {
+            throw new IllegalArgumentException("invalid position: " + k);
+        }
+        
+        int first = 0;
+        int last = arr.length - 1;
+        int depth = depthLimit(arr.length);
+        while (first < last) {
+            if (depth == 0) {
+                heapSort(arr, first, last);
+                break;
+            }
+            depth--;
+            
+            int split = partition(arr, first, last);
+            if (k <= split) {
+                last = split;
+            } else {
+                first = split + 1;
+            }
+        }
+        
+        return arr[k];
+    }
+    
+    /**
+     * partialSort - rearranges the array so that arr[0:k-1] holds the
+     * k smallest elements in sorted order.  The remaining elements are
+     * left in arr[k:] in no particular order.  Takes O(n + k log k)
+     * time on average.
+     */
+    public static void partialSort(int[] arr, int k) {
+        if (k < 0 || k > arr.length) {
+            throw new IllegalArgumentException("invalid k: " + k);
+        }
+        if (k == 0) {
+            return;
+        }
+        
+        if (k < arr.length) {
+            select(arr, k - 1);
+        }
+        dualPivotSort(arr, 0, k - 1, depthLimit(k));
+    }
+    
+    /*
+     * TopKHeap - keeps the k smallest values it has been given in a
+     * max-at-top heap, so that the largest of them, which is the one
+     * to replace when a smaller value arrives, is always at heap[0].
+     */
+    private static class TopKHeap implements IntConsumer {
+        private final int[] heap;
+        private int size;
+        
+        private TopKHeap(int k) {
+            heap = new int[k];
+        }
+        
+        public void accept(int value) {
+            if (size < heap.length) {
+                /* Add the value at the bottom and sift it up. */
+                int i = size;
+                size++;
+                while (i > 0 && heap[(i - 1)/2] < value) {
+                    heap[i] = heap[(i - 1)/2];
+                    i = (i - 1)/2;
+                }
+                heap[i] = value;
+            } else if (value < heap[0]) {
+                heap[0] = value;
+                siftDown(heap, 0, 0, size);
+            }
+        }
+    }
+    
+    /**
+     * topK - returns an array containing the k smallest values in the
+     * specified stream, in sorted order.  (If the stream has fewer
+     * than k values, all of them are returned.)  Only k values are
+     * kept in memory at a time, so the stream can be much larger
+     * than the available memory.  Takes O(n log k) time.
+     */
+    public static int[] topK(IntStream values, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("invalid k: " + k);
+        }
+        if (k == 0) {
+            return new int[0];
+        }
+        
+        TopKHeap topK = new TopKHeap(k);
+        values.sequential().forEach(topK);
+        
+        int[] result = Arrays.copyOf(topK.heap, topK.size);
+        heapSort(result, 0, result.length - 1);
+        return result;
     }
     
     /* merge - helper method for mergesort */
@@ -202,7 +604,8 @@ public class Sort {
     
     /** mSort - recursive method for mergesort */
     private static void mSort(int[] arr, int[] temp, int start, int end) {
-        if (start >= end) {
+        if (end - start < NETWORK_MAX) {
+            networkSort(arr, start, end);
             return;
         }
         
@@ -218,6 +621,1071 @@ public class Sort {
         mSort(arr, temp, 0, arr.length - 1);
     }
     
+    /*
+     * insertionSort - sorts the subarray from arr[first] to arr[last]
+     * using insertion sort.  Used by timSort to extend short runs.
+     */
+    private static void insertionSort(int[] arr, int first, int last) {
+        for (int i = first + 1; i <= last; i++) {
+            if (arr[i] < arr[i-1]) {
+                int toInsert = arr[i];
+                
+                int j = i;
+                do {
+                    arr[j] = arr[j - 1];
+                    j = j - 1;
+                } while (j > first && toInsert < arr[j-1]);
+                
+                arr[j] = toInsert;
+            }
+        }
+    }
+    
+    /*
+     * seqMSort - the sequential part of parallelMergeSort.  Works like
+     * mSort, except that it skips merges whose halves are already in
+     * order.
+     */
+    private static void seqMSort(int[] arr, int[] temp, int start, int end) {
+        if (end - start < NETWORK_MAX) {
+            networkSort(arr, start, end);
+            return;
+        }
+        
+        int middle = (start + end)/2;
+        seqMSort(arr, temp, start, middle);
+        seqMSort(arr, temp, middle + 1, end);
+        if (arr[middle] > arr[middle + 1]) {   // skip merge if already in order
+            merge(arr, temp, start, middle, middle + 1, end);
+        }
+    }
+    
+    /*
+     * lowerBound - returns the index of the first element in
+     * arr[first:last] that is >= key, or last + 1 if there is none.
+     */
+    private static int lowerBound(int[] arr, int first, int last, int key) {
+        int lo = first;
+        int hi = last + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /*
+     * upperBound - returns the index of the first element in
+     * arr[first:last] that is > key, or last + 1 if there is none.
+     */
+    private static int upperBound(int[] arr, int first, int last, int key) {
+        int lo = first;
+        int hi = last + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /*
+     * MergeSortTask - a fork/join task that sorts arr[start:end].  Both
+     * halves are sorted in parallel, and then merged (also in
+     * parallel) into the shared temp array, which is copied back.
+     * Because the two halves of a subarray never overlap, every task
+     * can safely use the same temp array.
+     */
+    private static class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] arr;
+        private final int[] temp;
+        private final int start;
+        private final int end;
+        private final int threshold;
+        
+        private MergeSortTask(int[] arr, int[] temp, int start, int end,
+                              int threshold) {
+            this.arr = arr;
+            this.temp = temp;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+        
+        protected void compute() {
+            if (end - start < threshold) {
+                seqMSort(arr, temp, start, end);
+                return;
+            }
+            
+            int middle = (start + end)/2;
+            invokeAll(new MergeSortTask(arr, temp, start, middle, threshold),
+                      new MergeSortTask(arr, temp, middle + 1, end, threshold));
+            
+            if (arr[middle] <= arr[middle + 1]) {
+                return;     // the halves are already in order
+            }
+            
+            new MergeTask(arr, temp, start, middle, middle + 1, end,
+                          start, threshold).compute();
+            new CopyTask(temp, arr, start, end, threshold).compute();
+        }
+    }
+    
+    /*
+     * MergeTask - a fork/join task that merges the sorted subarrays
+     * arr[leftStart:leftEnd] and arr[rightStart:rightEnd] into temp,
+     * starting at temp[dest].  Large merges are split in two by taking
+     * the middle element of the larger subarray and binary searching
+     * for its position in the smaller one.
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] arr;
+        private final int[] temp;
+        private final int leftStart, leftEnd, rightStart, rightEnd;
+        private final int dest;
+        private final int threshold;
+        
+        private MergeTask(int[] arr, int[] temp, int leftStart, int leftEnd,
+                          int rightStart, int rightEnd, int dest, int threshold) {
+            this.arr = arr;
+            this.temp = temp;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.dest = dest;
+            this.threshold = threshold;
+        }
+        
+        protected void compute() {
+            int leftLen = leftEnd - leftStart + 1;
+            int rightLen = rightEnd - rightStart + 1;
+            
+            if (leftLen + rightLen <= threshold) {
+                seqMerge();
+                return;
+            }
+            
+            /*
+             * Split around the middle of the larger subarray.  Equal
+             * keys from the left subarray always end up in front of
+             * those from the right one, so the merge stays stable.
+             */
+            int leftMid, rightMid;
+            if (leftLen >= rightLen) {
+                leftMid = (leftStart + leftEnd + 1)/2;
+                rightMid = lowerBound(arr, rightStart, rightEnd, arr[leftMid]);
+            } else {
+                rightMid = (rightStart + rightEnd + 1)/2;
+                leftMid = upperBound(arr, leftStart, leftEnd, arr[rightMid]);
+            }
+            int destMid = dest + (leftMid - leftStart) + (rightMid - rightStart);
+            
+            invokeAll(new MergeTask(arr, temp, leftStart, leftMid - 1,
+                                    rightStart, rightMid - 1, dest, threshold),
+                      new MergeTask(arr, temp, leftMid, leftEnd,
+                                    rightMid, rightEnd, destMid, threshold));
+        }
+        
+        private void seqMerge() {
+            int i = leftStart;
+            int j = rightStart;
+            int k = dest;
+            
+            while (i <= leftEnd && j <= rightEnd) {
+                if (arr[j] < arr[i]) {
+                    temp[k++] = arr[j++];
+                } else {
+                    temp[k++] = arr[i++];
+                }
+            }
+            
+            System.arraycopy(arr, i, temp, k, leftEnd - i + 1);
+            k += leftEnd - i + 1;
+            System.arraycopy(arr, j, temp, k, rightEnd - j + 1);
+        }
+    }
+    
+    /*
+     * CopyTask - a fork/join task that copies src[start:end] back into
+     * dest[start:end] in parallel chunks.
+     */
+    private static class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] src;
+        private final int[] dest;
+        private final int start;
+        private final int end;
+        private final int threshold;
+        
+        private CopyTask(int[] src, int[] dest, int start, int end,
+                         int threshold) {
+            this.src = src;
+            this.dest = dest;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+        
+        protected void compute() {
+            if (end - start < threshold) {
+                System.arraycopy(src, start, dest, start, end - start + 1);
+                return;
+            }
+            
+            int middle = (start + end)/2;
+            invokeAll(new CopyTask(src, dest, start, middle, threshold),
+                      new CopyTask(src, dest, middle + 1, end, threshold));
+        }
+    }
+    
+    /**
+     * parallelMergeSort - a fork/join version of mergesort that sorts
+     * the two halves of each subarray in parallel.  Subarrays smaller
+     * than the specified threshold are sorted on a single thread,
+     * with networkSort used for the smallest ones.  Like mergeSort,
+     * it uses a single temp array of the same length as arr.
+     */
+    public static void parallelMergeSort(int[] arr, int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("threshold must be >= 2");
+        }
+        if (arr.length < 2) {
+            return;
+        }
+        
+        int[] temp = new int[arr.length];
+        ForkJoinPool.commonPool().invoke(
+            new MergeSortTask(arr, temp, 0, arr.length - 1, threshold));
+    }
+    
+    /** parallelMergeSort, using the default threshold */
+    public static void parallelMergeSort(int[] arr) {
+        parallelMergeSort(arr, PARALLEL_THRESHOLD);
+    }
+    
+    /*
+     * radixKey - flips the sign bit of x so that negative ints come
+     * before positive ones when the keys are compared as unsigned
+     * digits.
+     */
+    private static int radixKey(int x) {
+        return x ^ Integer.MIN_VALUE;
+    }
+    
+    /*
+     * HistogramTask - a fork/join task that counts how often each
+     * digit value occurs in each digit position of arr[start:end-1].
+     * counts[pass * RADIX + d] is the number of keys whose digit for
+     * that pass equals d.
+     */
+    private static class HistogramTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] arr;
+        private final int start;
+        private final int end;
+        
+        private HistogramTask(int[] arr, int start, int end) {
+            this.arr = arr;
+            this.start = start;
+            this.end = end;
+        }
+        
+        protected int[] compute() {
+            if (end - start <= HISTOGRAM_CHUNK) {
+                int[] counts = new int[RADIX_PASSES * RADIX];
+                for (int i = start; i < end; i++) {
+                    int key = radixKey(arr[i]);
+                    for (int pass = 0; pass < RADIX_PASSES; pass++) {
+                        int digit = (key >>> (pass * RADIX_BITS)) & (RADIX - 1);
+                        counts[pass * RADIX + digit]++;
+                    }
+                }
+                return counts;
+            }
+            
+            int middle = (start + end) >>> 1;
+            HistogramTask right = new HistogramTask(arr, middle, end);
+            right.fork();
+            int[] counts = new HistogramTask(arr, start, middle).compute();
+            int[] rightCounts = right.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += rightCounts[i];
+            }
+            return counts;
+        }
+    }
+    
+    /**
+     * radixSort - an LSD radix sort that sorts the array in linear
+     * time by distributing the keys on one 8-bit digit at a time,
+     * starting with the least significant one.  Negative keys are
+     * handled by flipping the sign bit.  The counts for all four
+     * digits are computed in a single (parallel, for large arrays)
+     * pass over the data, and digits on which every key agrees are
+     * skipped, so keys in 0..MAX_VAL need at most three passes.
+     * Apart from the counts, the only extra memory is one temp
+     * array of the same length as arr.
+     */
+    public static void radixSort(int[] arr) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        
+        int[] counts;
+        if (n > HISTOGRAM_CHUNK) {
+            counts = ForkJoinPool.commonPool().invoke(new HistogramTask(arr, 0, n));
+        } else {
+            counts = new HistogramTask(arr, 0, n).compute();
+        }
+        
+        int[] src = arr;
+        int[] dest = null;
+        int[] next = new int[RADIX];
+        for (int pass = 0; pass < RADIX_PASSES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int base = pass * RADIX;
+            
+            /* If every key has the same digit, this pass does nothing. */
+            int firstDigit = (radixKey(src[0]) >>> shift) & (RADIX - 1);
+            if (counts[base + firstDigit] == n) {
+                continue;
+            }
+            
+            /* next[d] is where the next key with digit d should go. */
+            int sum = 0;
+            for (int d = 0; d < RADIX; d++) {
+                next[d] = sum;
+                sum += counts[base + d];
+            }
+            
+            if (dest == null) {
+                dest = new int[n];
+            }
+            for (int i = 0; i < n; i++) {
+                int digit = (radixKey(src[i]) >>> shift) & (RADIX - 1);
+                dest[next[digit]++] = src[i];
+            }
+            
+            int[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+        
+        /* After an odd number of passes, the result is in the temp array. */
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+    
+    /*
+     * classify - returns the bucket to which x belongs, given the
+     * numBuckets - 1 splitters stored in tree[1:numBuckets-1] as an
+     * implicit binary search tree (the children of tree[j] are
+     * tree[2j] and tree[2j+1]).  Each step down the tree adds 0 or 1
+     * to j based on a comparison rather than branching on it, so
+     * that the loop has no branches to mispredict.
+     */
+    private static int classify(int x, int[] tree, int levels) {
+        int j = 1;
+        for (int level = 0; level < levels; level++) {
+            j = 2*j + (x > tree[j] ? 1 : 0);
+        }
+        return j - (1 << levels);
+    }
+    
+    /*
+     * buildTree - stores the sorted splitters sorted[lo:hi-1] into
+     * tree in the implicit binary search tree layout used by classify,
+     * with the middle splitter at tree[j].
+     */
+    private static void buildTree(int[] sorted, int lo, int hi, int[] tree, int j) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        tree[j] = sorted[mid];
+        buildTree(sorted, lo, mid, tree, 2*j);
+        buildTree(sorted, mid + 1, hi, tree, 2*j + 1);
+    }
+    
+    /**
+     * parallelSampleSort - a parallel sample sort.  It chooses
+     * distinct splitters from a sorted random sample of the array and
+     * uses them to divide the values into buckets, so that every value
+     * in one bucket is <= every value in the next.  Each splitter has
+     * a bucket of its own for the values equal to it, and the values
+     * between two splitters go in the bucket between theirs.  The
+     * array is split into one block per worker.  Each worker
+     * classifies and counts its block's values and then copies them
+     * straight to their buckets' places in a temp array.  The buckets
+     * are then sorted in parallel with dualPivotSort and copied back.
+     * Each value is moved only twice, and the workers never share
+     * cache lines except at block edges.
+     *
+     * A value that appears often is likely to be a splitter, so its
+     * copies end up in an equality bucket, which is already sorted.
+     * Without these buckets, an array with few distinct values would
+     * put most of them in one bucket, which a single worker would
+     * have to sort.
+     */
+    public static void parallelSampleSort(int[] arr) {
+        int n = arr.length;
+        if (n < SAMPLE_SORT_MIN) {
+            quickSort(arr);
+            return;
+        }
+        
+        /*
+         * Use about four ranges of values per worker, as a power of 2
+         * up to 128, so that the ranges and the equality buckets
+         * between them (at most 255 buckets in all) can be numbered
+         * in a byte.
+         */
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int bits = 1;
+        while ((1 << bits) < 4 * parallelism && bits < 7) {
+            bits++;
+        }
+        int levels = bits;
+        int numRanges = 1 << levels;
+        int numBuckets = 2 * numRanges - 1;
+        
+        /* Choose numRanges - 1 splitters from a sorted random sample. */
+        int[] sample = new int[numRanges * OVERSAMPLING];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = arr[random.nextInt(n)];
+        }
+        quickSort(sample);
+        
+        /*
+         * Keep only the distinct splitters, and fill the rest of the
+         * array with copies of the largest one.  The extra element at
+         * the end means that splitters[j] can be read for every j
+         * that classify returns.
+         */
+        int[] splitters = new int[numRanges];
+        int numDistinct = 0;
+        for (int i = 0; i < numRanges - 1; i++) {
+            int s = sample[(i + 1) * OVERSAMPLING];
+            if (numDistinct == 0 || s != splitters[numDistinct - 1]) {
+                splitters[numDistinct++] = s;
+            }
+        }
+        Arrays.fill(splitters, numDistinct, numRanges, splitters[numDistinct - 1]);
+        int[] tree = new int[numRanges];
+        buildTree(splitters, 0, numRanges - 1, tree, 1);
+        
+        /* Classify each block's values and count the size of each bucket. */
+        int numBlocks = Math.max(1, Math.min(parallelism, n / SAMPLE_SORT_MIN));
+        int blockSize = (n + numBlocks - 1) / numBlocks;
+        byte[] bucketOf = new byte[n];
+        int[][] counts = new int[numBlocks][numBuckets];
+        IntStream.range(0, numBlocks).parallel().forEach(block -> {
+            int[] blockCounts = counts[block];
+            int end = Math.min(n, (block + 1) * blockSize);
+            for (int i = block * blockSize; i < end; i++) {
+                /*
+                 * Value x is greater than j splitters.  If it is equal
+                 * to the next one, it goes in that splitter's bucket
+                 * (2j + 1); otherwise it goes in the bucket below (2j).
+                 */
+                int x = arr[i];
+                int j = classify(x, tree, levels);
+                int b = 2*j + (x == splitters[j] ? 1 : 0);
+                bucketOf[i] = (byte)b;
+                blockCounts[b]++;
+            }
+        });
+        
+        /*
+         * Find where each block's share of each bucket starts:
+         * bucket by bucket, and within a bucket, block by block.
+         */
+        int[] bucketStart = new int[numBuckets + 1];
+        int[][] next = new int[numBlocks][numBuckets];
+        int sum = 0;
+        for (int b = 0; b < numBuckets; b++) {
+            bucketStart[b] = sum;
+            for (int block = 0; block < numBlocks; block++) {
+                next[block][b] = sum;
+                sum += counts[block][b];
+            }
+        }
+        bucketStart[numBuckets] = n;
+        
+        /* Copy the values into their buckets. */
+        int[] temp = new int[n];
+        IntStream.range(0, numBlocks).parallel().forEach(block -> {
+            int[] blockNext = next[block];
+            int end = Math.min(n, (block + 1) * blockSize);
+            for (int i = block * blockSize; i < end; i++) {
+                temp[blockNext[bucketOf[i] & 0xff]++] = arr[i];
+            }
+        });
+        
+        /* Sort the buckets (but not the equality buckets) and copy them back. */
+        IntStream.range(0, numBuckets).parallel().forEach(b -> {
+            int first = bucketStart[b];
+            int last = bucketStart[b + 1] - 1;
+            if (first < last && b % 2 == 0) {
+                dualPivotSort(temp, first, last, depthLimit(last - first + 1));
+            }
+            System.arraycopy(temp, first, arr, first, last - first + 1);
+        });
+    }
+    
+    /*
+     * RunMerger - the state used by timSort: the array being sorted,
+     * a stack of the pending runs (each one a sorted subarray that
+     * has not yet been merged), and the temp array used by the merges.
+     */
+    private static class RunMerger {
+        /* arrays shorter than this are sorted with a single insertion sort */
+        private static final int MIN_MERGE = 32;
+        
+        /* how many wins in a row before a merge starts galloping */
+        private static final int MIN_GALLOP = 7;
+        
+        private final int[] arr;
+        private int[] temp;
+        private int minGallop = MIN_GALLOP;
+        
+        /*
+         * runBase[i] and runLen[i] are the start and length of the ith
+         * pending run.  The merge rules in mergeCollapse keep the run
+         * lengths growing at least as fast as the Fibonacci numbers,
+         * so 49 entries are enough for any int length.
+         */
+        private final int[] runBase = new int[49];
+        private final int[] runLen = new int[49];
+        private int stackSize = 0;
+        
+        private RunMerger(int[] arr) {
+            this.arr = arr;
+            this.temp = new int[Math.min(256, arr.length / 2 + 1)];
+        }
+        
+        /*
+         * minRunLength - returns the minimum length of a run for an
+         * array of n elements.  Shorter natural runs are extended to
+         * this length with insertion sort.  The value is chosen in
+         * [MIN_MERGE/2, MIN_MERGE] so that n/minRun is a power of 2 or
+         * a little less, which keeps the final merges balanced.
+         */
+        private static int minRunLength(int n) {
+            int r = 0;      // becomes 1 if any 1 bits are shifted off
+            while (n >= MIN_MERGE) {
+                r |= (n & 1);
+                n >>= 1;
+            }
+            return n + r;
+        }
+        
+        /*
+         * countRun - returns the length of the run that begins at
+         * arr[lo], where hi is one past the last index that may be
+         * included.  A run is either nondecreasing or strictly
+         * decreasing; decreasing runs are reversed in place so that
+         * every run ends up ascending.  (Requiring strictly decreasing
+         * runs keeps the reversal from reordering equal keys.)
+         */
+        private int countRun(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            
+            if (arr[runHi++] < arr[lo]) {
+                while (runHi < hi && arr[runHi] < arr[runHi - 1]) {
+                    runHi++;
+                }
+                for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                    swap(arr, i, j);
+                }
+            } else {
+                while (runHi < hi && arr[runHi] >= arr[runHi - 1]) {
+                    runHi++;
+                }
+            }
+            
+            return runHi - lo;
+        }
+        
+        /*
+         * sort - finds the runs in the array, extending short ones,
+         * pushes them on the stack and merges them.
+         */
+        private void sort() {
+            int n = arr.length;
+            if (n < MIN_MERGE) {
+                insertionSort(arr, 0, n - 1);
+                return;
+            }
+            
+            int minRun = minRunLength(n);
+            int lo = 0;
+            while (lo < n) {
+                int len = countRun(lo, n);
+                
+                if (len < minRun) {
+                    int force = Math.min(minRun, n - lo);
+                    insertionSort(arr, lo, lo + force - 1);
+                    len = force;
+                }
+                
+                runBase[stackSize] = lo;
+                runLen[stackSize] = len;
+                stackSize++;
+                mergeCollapse();
+                
+                lo += len;
+            }
+            
+            /* Merge whatever runs are left. */
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                    i--;
+                }
+                mergeAt(i);
+            }
+        }
+        
+        /*
+         * mergeCollapse - merges runs on the stack until, for the top
+         * three runs X, Y and Z (Z on top), len(X) > len(Y) + len(Z)
+         * and len(Y) > len(Z).  The check is also made one run further
+         * down, since a merge can break the rule below the top.
+         */
+        private void mergeCollapse() {
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if ((i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]) ||
+                    (i > 1 && runLen[i - 2] <= runLen[i - 1] + runLen[i])) {
+                    if (runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                } else if (runLen[i] > runLen[i + 1]) {
+                    break;
+                }
+                mergeAt(i);
+            }
+        }
+        
+        /*
+         * mergeAt - merges the runs at positions i and i+1 of the stack.
+         * Elements at the start of the first run that are already <=
+         * every element of the second run, and elements at the end of
+         * the second run that are already >= every element of the
+         * first, are found by galloping and left where they are.
+         */
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+            
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+            
+            int k = gallopRight(arr[base2], arr, base1, len1, 0);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            
+            len2 = gallopLeft(arr[base1 + len1 - 1], arr, base2, len2, len2 - 1);
+            if (len2 == 0) {
+                return;
+            }
+            
+            if (len1 <= len2) {
+                mergeLo(base1, len1, base2, len2);
+            } else {
+                mergeHi(base1, len1, base2, len2);
+            }
+        }
+        
+        /*
+         * gallopLeft - returns the position k in a[base:base+len-1] at
+         * which key would be inserted before any equal elements, so
+         * that a[base+k-1] < key <= a[base+k].  The search starts at
+         * position hint and takes exponentially growing steps away
+         * from it before finishing with a binary search, so it is fast
+         * when the answer is close to hint.
+         */
+        private static int gallopLeft(int key, int[] a, int base, int len, int hint) {
+            int lastOfs = 0;
+            int ofs = 1;
+            
+            if (key > a[base + hint]) {
+                /* Step right until a[base+hint+lastOfs] < key <= a[base+hint+ofs]. */
+                int maxOfs = len - hint;
+                while (ofs < maxOfs && key > a[base + hint + ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {      // int overflow
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                lastOfs += hint;
+                ofs += hint;
+            } else {
+                /* Step left until a[base+hint-ofs] < key <= a[base+hint-lastOfs]. */
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs && key <= a[base + hint - ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                int tmp = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - tmp;
+            }
+            
+            /* Now a[base+lastOfs] < key <= a[base+ofs]; binary search between them. */
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (key > a[base + m]) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+        
+        /*
+         * gallopRight - like gallopLeft, except that it returns the
+         * position after any elements equal to key, so that
+         * a[base+k-1] <= key < a[base+k].
+         */
+        private static int gallopRight(int key, int[] a, int base, int len, int hint) {
+            int lastOfs = 0;
+            int ofs = 1;
+            
+            if (key < a[base + hint]) {
+                /* Step left until a[base+hint-ofs] <= key < a[base+hint-lastOfs]. */
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs && key < a[base + hint - ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                int tmp = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - tmp;
+            } else {
+                /* Step right until a[base+hint+lastOfs] <= key < a[base+hint+ofs]. */
+                int maxOfs = len - hint;
+                while (ofs < maxOfs && key >= a[base + hint + ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                if (ofs > maxOfs) {
+                    ofs = maxOfs;
+                }
+                lastOfs += hint;
+                ofs += hint;
+            }
+            
+            /* Now a[base+lastOfs] <= key < a[base+ofs]; binary search between them. */
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (key < a[base + m]) {
+                    ofs = m;
+                } else {
+                    lastOfs = m + 1;
+                }
+            }
+            return ofs;
+        }
+        
+        /*
+         * ensureCapacity - makes sure that temp can hold at least
+         * minCapacity elements.  The temp array never needs to be
+         * longer than half of the array being sorted.
+         */
+        private int[] ensureCapacity(int minCapacity) {
+            if (temp.length < minCapacity) {
+                int newSize = Integer.highestOneBit(minCapacity) << 1;
+                if (newSize < 0 || newSize > arr.length / 2 + 1) {
+                    newSize = Math.max(minCapacity, arr.length / 2 + 1);
+                }
+                temp = new int[newSize];
+            }
+            return temp;
+        }
+        
+        /*
+         * mergeLo - merges the adjacent runs arr[base1:base1+len1-1]
+         * and arr[base2:base2+len2-1], where len1 <= len2, working
+         * from left to right.  The first run is copied into temp.
+         * mergeAt has already arranged that the first element of the
+         * second run belongs before the first element of the first
+         * run, and that the last element of the first run belongs at
+         * the very end.
+         *
+         * The runs are merged one element at a time until one of them
+         * has supplied MIN_GALLOP elements in a row.  Then we switch
+         * to galloping: we use gallopRight/gallopLeft to find how
+         * many elements in a row each run supplies and copy them all
+         * at once.  This is what makes merging nearly sorted runs
+         * fast.
+         */
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            int[] a = arr;
+            int[] tmp = ensureCapacity(len1);
+            System.arraycopy(a, base1, tmp, 0, len1);
+            
+            int cursor1 = 0;        // index into tmp
+            int cursor2 = base2;    // index into the second run
+            int dest = base1;       // index into a
+            
+            a[dest++] = a[cursor2++];
+            if (--len2 == 0) {
+                System.arraycopy(tmp, cursor1, a, dest, len1);
+                return;
+            }
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = tmp[cursor1];
+                return;
+            }
+            
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;     // number of times in a row that run 1 won
+                int count2 = 0;     // number of times in a row that run 2 won
+                
+                /* Merge one element at a time until one run keeps winning. */
+                do {
+                    if (a[cursor2] < tmp[cursor1]) {
+                        a[dest++] = a[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest++] = tmp[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+                
+                /* Gallop until neither run is winning consistently. */
+                do {
+                    count1 = gallopRight(a[cursor2], tmp, cursor1, len1, 0);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, cursor1, a, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        len1 -= count1;
+                        if (len1 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = a[cursor2++];
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+                    
+                    count2 = gallopLeft(tmp[cursor1], a, cursor2, len2, 0);
+                    if (count2 != 0) {
+                        System.arraycopy(a, cursor2, a, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = tmp[cursor1++];
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;     // penalize leaving gallop mode
+            }
+            this.minGallop = Math.max(minGallop, 1);
+            
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = tmp[cursor1];
+            } else {
+                System.arraycopy(tmp, cursor1, a, dest, len1);
+            }
+        }
+        
+        /*
+         * mergeHi - like mergeLo, but used when len1 > len2.  The
+         * second run is copied into temp and the merge works from
+         * right to left.
+         */
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            int[] a = arr;
+            int[] tmp = ensureCapacity(len2);
+            System.arraycopy(a, base2, tmp, 0, len2);
+            
+            int cursor1 = base1 + len1 - 1;   // index into the first run
+            int cursor2 = len2 - 1;           // index into tmp
+            int dest = base2 + len2 - 1;      // index into a
+            
+            a[dest--] = a[cursor1--];
+            if (--len1 == 0) {
+                System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+                return;
+            }
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = tmp[cursor2];
+                return;
+            }
+            
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+                
+                do {
+                    if (tmp[cursor2] < a[cursor1]) {
+                        a[dest--] = a[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest--] = tmp[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+                
+                do {
+                    count1 = len1 - gallopRight(tmp[cursor2], a, base1, len1, len1 - 1);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        cursor1 -= count1;
+                        len1 -= count1;
+                        System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = tmp[cursor2--];
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+                    
+                    count2 = len2 - gallopLeft(a[cursor1], tmp, 0, len2, len2 - 1);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        cursor2 -= count2;
+                        len2 -= count2;
+                        System.arraycopy(tmp, cursor2 + 1, a, dest + 1, count2);
+                        if (len2 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = a[cursor1--];
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(minGallop, 1);
+            
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = tmp[cursor2];
+            } else {
+                System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+            }
+        }
+    }
+    
+    /**
+     * timSort - an adaptive mergesort that takes advantage of order
+     * that is already present in the array.  It splits the array into
+     * natural runs (ascending, or strictly descending ones, which it
+     * reverses), extends short runs with insertion sort, and merges
+     * the runs using merges that "gallop" past long stretches that
+     * are already in place.  It takes close to O(n) time on almost
+     * sorted arrays and O(n log n) time in the worst case, and its
+     * temp array is never more than half the length of arr.
+     */
+    public static void timSort(int[] arr) {
+        if (arr.length < 2) {
+            return;
+        }
+        new RunMerger(arr).sort();
+    }
+    
     /**
      * printArray - prints the specified array in the following form:
      * { arr[0] arr[1] ... }
@@ -276,5 +1744,29 @@ public class Sort {
         mergeSort(copy);
         System.out.print("mergesort:\t");
         printArray(copy);
+        
+        /* parallel mergesort */
+        System.arraycopy(orig, 0, copy, 0, orig.length);
+        parallelMergeSort(copy);
+        System.out.print("parallel mergesort:\t");
+        printArray(copy);
+        
+        /* radix sort */
+        System.arraycopy(orig, 0, copy, 0, orig.length);
+        radixSort(copy);
+        System.out.print("radix sort:\t");
+        printArray(copy);
+        
+        /* timsort */
+        System.arraycopy(orig, 0, copy, 0, orig.length);
+        timSort(copy);
+        System.out.print("timsort:\t");
+        printArray(copy);
+        
+        /* parallel sample sort */
+        System.arraycopy(orig, 0, copy, 0, orig.length);
+        parallelSampleSort(copy);
+        System.out.print("sample sort:\t");
+        printArray(copy);
     }
 }
\ No newline at end of file
@@ -24,25 +24,21 @@ public class SortCount {
      */
     private static int MAX_VAL = 65536;
     
-    private static long compares;     // total number of comparisons
-    private static long moves;        // total number of moves
-    
     /*
-     * compare - a wrapper that allows us to count comparisons.
+     * the counts that are updated by the sorting methods that aren't
+     * given a SortStats object; each thread has its own
      */
-    private static boolean compare(boolean comparison) {
-        compares++;
-        return comparison;
-    }
+    private static final ThreadLocal<SortStats> currentStats =
+        ThreadLocal.withInitial(SortStats::new);
     
     /*
      * move - moves an element of the specified array to a different
-     * location in the array.  move(arr, dest, source) is equivalent
-     * to arr[dest] = arr[source].  Using this method allows us to
-     * count the number of moves that occur.
+     * location in the array.  move(arr, dest, source, stats) is
+     * equivalent to arr[dest] = arr[source].  Using this method
+     * allows us to count the number of moves that occur.
      */
-    private static void move(int[] arr, int dest, int source) {
-        moves++;
+    private static void move(int[] arr, int dest, int source, SortStats stats) {
+        stats.move();
         arr[dest] = arr[source];
     }
     
@@ -50,11 +46,11 @@ public class SortCount {
      * swap - swap the values of two variables.
      * Used by several of the sorting algorithms below.
      */
-    private static void swap(int[] arr, int a, int b) {
+    private static void swap(int[] arr, int a, int b, SortStats stats) {
         int temp = arr[a];
         arr[a] = arr[b];
         arr[b] = temp;
-        moves += 3;
+        stats.moves(3);
     }
     
     /** 
@@ -78,7 +74,7 @@ public class SortCount {
     public static int[] almostSortedArray(int n) {
         /* Produce a random array and sort it. */
         int[] arr = randomArray(n);
-        quickSort(arr);
+        quickSort(arr, SortStats.NONE);
         
         /* 
          * Move one quarter of the elements out of place by between 1
@@ -94,35 +90,33 @@ public class SortCount {
                 k = n - 1;
             }
             
-            swap(arr, j, k);
+            swap(arr, j, k, SortStats.NONE);
         }
         
         return arr;
     }
     
     /**
-     * Sets the counts of moves and comparisons to 0.
+     * Returns the counts that are updated by the sorting methods
+     * that aren't given a SortStats object.  Each thread has its own
+     * counts.
+     */
+    public static SortStats currentStats() {
+        return currentStats.get();
+    }
+    
+    /**
+     * Sets the current thread's counts of moves and comparisons to 0.
      */
     public static void initStats() {
-        compares = 0;
-        moves = 0;
+        currentStats().reset();
     }
     
     /**
-     * Prints the current counts of moves and comparisons.
+     * Prints the current thread's counts of moves and comparisons.
      */
     public static void printStats() {
-        int spaces = (int)(Math.log(compares)/Math.log(10));
-        for (int i = 0; i < (10 - spaces); i++) {
-            System.out.print(" ");
-        }
-        System.out.print(compares + " comparisons\t");
-        
-        spaces = (int)(Math.log(moves)/Math.log(10));
-        for (int i = 0; i < (10 - spaces); i++) {
-            System.out.print(" ");
-        }
-        System.out.println(moves + " moves");
+        System.out.println(currentStats());
     }
     
     /*
@@ -130,11 +124,11 @@ public class SortCount {
      * in the subarray from arr[start] to the end of the array.  
      * Used by selectionSort.
      */
-    private static int indexSmallest(int[] arr, int start) {
+    private static int indexSmallest(int[] arr, int start, SortStats stats) {
         int indexMin = start;
         
         for (int i = start + 1; i < arr.length; i++) {
-            if (compare(arr[i] < arr[indexMin])) {
+            if (stats.compare(arr[i] < arr[indexMin])) {
                 indexMin = i;
             }
         }
@@ -143,37 +137,37 @@ public class SortCount {
     }
     
     /** selectionSort */
-    public static void selectionSort(int[] arr) {
+    public static void selectionSort(int[] arr, SortStats stats) {
         for (int i = 0; i < arr.length - 1; i++) {
-            int j = indexSmallest(arr, i);
-            swap(arr, i, j);
+            int j = indexSmallest(arr, i, stats);
+            swap(arr, i, j, stats);
         }
     }
     
     /** insertionSort */
-    public static void insertionSort(int[] arr) {
+    public static void insertionSort(int[] arr, SortStats stats) {
         for (int i = 1; i < arr.length; i++) {
-            if (compare(arr[i] < arr[i-1])) {
+            if (stats.compare(arr[i] < arr[i-1])) {
                 // Save a copy of the element to be inserted.
                 int toInsert = arr[i];
-                moves++;
+                stats.move();
                 
                 // Shift right to make room for element.
                 int j = i;
                 do {
-                    move(arr, j, j - 1);
+                    move(arr, j, j - 1, stats);
                     j = j - 1;
-                } while (j > 0 && compare(toInsert < arr[j-1]));
+                } while (j > 0 && stats.compare(toInsert < arr[j-1]));
                 
                 // Put the element in place.
                 arr[j] = toInsert;
-                moves++;
+                stats.move();
             }
         }
     }
     
     /** shellSort */
-    public static void shellSort(int[] arr) {
+    public static void shellSort(int[] arr, SortStats stats) {
         /*
          * Find initial increment: one less than the largest
          * power of 2 that is <= the number of objects.
@@ -187,18 +181,18 @@ public class SortCount {
         /* Do insertion sort for each increment. */
         while (incr >= 1) {
             for (int i = incr; i < arr.length; i++) {
-                if (compare(arr[i] < arr[i-incr])) {
+                if (stats.compare(arr[i] < arr[i-incr])) {
                     int toInsert = arr[i];
-                    moves++;
+                    stats.move();
                     
                     int j = i;
                     do {
-                        move(arr, j, j-incr);
+                        move(arr, j, j-incr, stats);
                         j = j - incr;
-                    } while (j > incr-1 && compare(toInsert < arr[j-incr]));
+                    } while (j > incr-1 && stats.compare(toInsert < arr[j-incr]));
                     
                     arr[j] = toInsert;
-                    moves++;
+                    stats.move();
                 }
             }
             
@@ -208,22 +202,22 @@ public class SortCount {
     }
     
     /** bubbleSort */
-    public static void bubbleSort(int[] arr) {
+    public static void bubbleSort(int[] arr, SortStats stats) {
         for (int i = arr.length - 1; i > 0; i--) {
             for (int j = 0; j < i; j++) {
-                if (compare(arr[j] > arr[j+1])) {
-                    swap(arr, j, j+1);
+                if (stats.compare(arr[j] > arr[j+1])) {
+                    swap(arr, j, j+1, stats);
                 }
             }
         }
     }
     
-    public static void bubbleSort2(int[] arr) {
+    public static void bubbleSort2(int[] arr, SortStats stats) {
         boolean swapped = false;
         for (int i = arr.length - 1; i > 0; i--) {
             for (int j = 0; j < i; j++) {
-                if (compare(arr[j] > arr[j+1])) {
-                    swap(arr, j, j+1);
+                if (stats.compare(arr[j] > arr[j+1])) {
+                    swap(arr, j, j+1, stats);
                     swapped = true;
                 }
             }
@@ -243,9 +237,10 @@ public class SortCount {
      * elements in the left subarray are <= the pivot, and all
      * elements in the right subarray are >= the pivot.
      */
-    private static int partition(int[] arr, int first, int last) {
+    private static int partition(int[] arr, int first, int last,
+                                 SortStats stats) {
         int pivot = arr[(first + last)/2];
-        moves++;   // for the above assignment
+        stats.move();   // for the above assignment
         int i = first - 1;  // index going left to right
         int j = last + 1;   // index going right to left
         
@@ -253,18 +248,18 @@ public class SortCount {
             // moving from left to right, find an element >= the pivot
             do {
                 i++;
-            } while (compare(arr[i] < pivot));
+            } while (stats.compare(arr[i] < pivot));
             
             // moving from right to left, find an element <= the pivot
             do {
                 j--;
-            } while (compare(arr[j] > pivot)); 
+            } while (stats.compare(arr[j] > pivot));
             
             // If the indices still haven't met or crossed,
             // swap the elements so that they end up in the correct subarray.
             // Otherwise, the partition is complete and we return j.
             if (i < j) {
-                swap(arr, i, j);
+                swap(arr, i, j, stats);
             } else {
                 return j;   // index of last element in the left subarray
             }
@@ -275,10 +270,10 @@ public class SortCount {
      * A recursive helper method that actually implements quicksort.
      * The initial recursive call is made by quicksort() -- see below.
      */
-    private static void qSort(int[] arr, int first, int last) {
+    private static void qSort(int[] arr, int first, int last, SortStats stats) {
         // Partition the array.  split is the index of the last
         // element of the left subarray formed by the partition.
-        int split = partition(arr, first, last);
+        int split = partition(arr, first, last, stats);
         
         //
         // Note that we only make recursive calls on subarrays that
@@ -286,71 +281,113 @@ public class SortCount {
         // neither subarray has two or more elements.
         //
         if (first < split) {
-            qSort(arr, first, split);      // left subarray
+            qSort(arr, first, split, stats);          // left subarray
         }
         if (last > split + 1) {
-            qSort(arr, split + 1, last);   // right subarray
+            qSort(arr, split + 1, last, stats);       // right subarray
         }
     }
     
     /** quickSort */
-    public static void quickSort(int[] arr) {
-        qSort(arr, 0, arr.length - 1); 
+    public static void quickSort(int[] arr, SortStats stats) {
+        qSort(arr, 0, arr.length - 1, stats);
     }
     
     /* merge - helper method for mergesort */
     private static void merge(int[] arr, int[] temp, 
-                              int leftStart, int leftEnd, int rightStart, int rightEnd)
+                              int leftStart, int leftEnd, int rightStart, int rightEnd,
+                              SortStats stats)
     {
         int i = leftStart;    // index into left subarray
         int j = rightStart;   // index into right subarray
         int k = leftStart;    // index into temp
         
         while (i <= leftEnd && j <= rightEnd) {
-            if (compare(arr[i] < arr[j])) {
+            if (stats.compare(arr[i] < arr[j])) {
                 temp[k] = arr[i];
                 i++; k++;
             } else {
                 temp[k] = arr[j];
                 j++; k++;
             }
-            moves++;
+            stats.move();
         }
         
         while (i <= leftEnd) {
             temp[k] = arr[i];
             i++; k++;
-            moves++;
+            stats.move();
         }
         
         while (j <= rightEnd) {
             temp[k] = arr[j];
             j++; k++;
-            moves++;
+            stats.move();
         }
         
         for (i = leftStart; i <= rightEnd; i++) {
             arr[i] = temp[i];
-            moves++;
+            stats.move();
         }
     }
     
     /** mSort - recursive method for mergesort */
-    private static void mSort(int[] arr, int[] temp, int start, int end) {
+    private static void mSort(int[] arr, int[] temp, int start, int end,
+                              SortStats stats) {
         if (start >= end) {
             return;
         }
         
         int middle = (start + end)/2;
-        mSort(arr, temp, start, middle);
-        mSort(arr, temp, middle + 1, end);
-        merge(arr, temp, start, middle, middle + 1, end);
+        mSort(arr, temp, start, middle, stats);
+        mSort(arr, temp, middle + 1, end, stats);
+        merge(arr, temp, start, middle, middle + 1, end, stats);
     }
     
     /** mergesort */
-    public static void mergeSort(int[] arr) {
+    public static void mergeSort(int[] arr, SortStats stats) {
         int[] temp = new int[arr.length];
-        mSort(arr, temp, 0, arr.length - 1);
+        mSort(arr, temp, 0, arr.length - 1, stats);
+    }
+    
+    /*
+     * Versions of the sorting methods that add their counts to the
+     * current thread's SortStats object -- see currentStats().
+     */
+    
+    /** selectionSort, counting into currentStats() */
+    public static void selectionSort(int[] arr) {
+        selectionSort(arr, currentStats());
+    }
+    
+    /** insertionSort, counting into currentStats() */
+    public static void insertionSort(int[] arr) {
+        insertionSort(arr, currentStats());
+    }
+    
+    /** shellSort, counting into currentStats() */
+    public static void shellSort(int[] arr) {
+        shellSort(arr, currentStats());
+    }
+    
+    /** bubbleSort, counting into currentStats() */
+    public static void bubbleSort(int[] arr) {
+        bubbleSort(arr, currentStats());
+    }
+    
+    /** bubbleSort2, counting into currentStats() */
+    public static void bubbleSort2(int[] arr) {
+        bubbleSort2(arr, currentStats());
+    }
+    
+    /** quickSort, counting into currentStats() */
+    public static void quickSort(int[] arr) {
+        quickSort(arr, currentStats());
+    }
+    
+    /** mergeSort, counting into currentStats() */
+    public static void mergeSort(int[] arr) {
+        mergeSort(arr, currentStats());
     }
     
     /**
@@ -476,8 +513,8 @@ public class SortCount {
                 initStats();
                 bubbleSort2(a);
             
-                sumMoves += moves;
-                sumComparisons += compares;
+                sumMoves += currentStats().getMoves();
+                sumComparisons += currentStats().getCompares();
             }
             float avgComparisons = sumComparisons / 10;
             float avgMoves = sumMoves / 10;
@@ -497,8 +534,8 @@ public class SortCount {
                 initStats();
                 bubbleSort2(a);
             
-                sumMoves += moves;
-                sumComparisons += compares;
+                sumMoves += currentStats().getMoves();
+                sumComparisons += currentStats().getCompares();
             }
             float avgComparisons = sumComparisons / 10;
             float avgMoves = sumMoves / 10;
@@ -0,0 +1,123 @@
+/*
+ * SortStats.java
+ *
+ * Computer Science E-22, Harvard University
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SortStats - the counts of comparisons and moves made by a sort.
+ * Each invocation of a SortCount sorting method updates the SortStats
+ * object that it is given, so sorts that run at the same time on
+ * different threads never interfere with each other's counts.
+ *
+ * A SortStats object is not itself thread-safe; it should be used by
+ * one sort at a time.  Counts can be moved to the process-wide totals
+ * by calling publish(), which is safe to do from any thread.  The
+ * NONE object ignores all counts, for callers that don't want them.
+ */
+public class SortStats {
+    /** a SortStats object that doesn't count anything */
+    public static final SortStats NONE = new SortStats(false);
+    
+    /* process-wide totals of all published counts */
+    private static final LongAdder totalCompares = new LongAdder();
+    private static final LongAdder totalMoves = new LongAdder();
+    
+    private final boolean counting;
+    private long compares;     // number of comparisons
+    private long moves;        // number of moves
+    
+    /**
+     * Constructs a SortStats object with counts of 0.
+     */
+    public SortStats() {
+        this(true);
+    }
+    
+    private SortStats(boolean counting) {
+        this.counting = counting;
+    }
+    
+    /*
+     * compare - a wrapper that allows us to count comparisons.
+     */
+    boolean compare(boolean comparison) {
+        if (counting) {
+            compares++;
+        }
+        return comparison;
+    }
+    
+    /*
+     * move - counts a single move.
+     */
+    void move() {
+        if (counting) {
+            moves++;
+        }
+    }
+    
+    /*
+     * moves - counts the specified number of moves.
+     */
+    void moves(int n) {
+        if (counting) {
+            moves += n;
+        }
+    }
+    
+    /** getCompares - returns the number of comparisons counted */
+    public long getCompares() {
+        return compares;
+    }
+    
+    /** getMoves - returns the number of moves counted */
+    public long getMoves() {
+        return moves;
+    }
+    
+    /** reset - sets the counts of moves and comparisons to 0 */
+    public void reset() {
+        compares = 0;
+        moves = 0;
+    }
+    
+    /**
+     * publish - adds the current counts to the process-wide totals and
+     * then sets them to 0, so that publishing after each batch of
+     * sorts adds each count to the totals only once.
+     */
+    public void publish() {
+        if (counting) {
+            totalCompares.add(compares);
+            totalMoves.add(moves);
+            reset();
+        }
+    }
+    
+    /** totalCompares - returns the total of all published comparisons */
+    public static long totalCompares() {
+        return totalCompares.sum();
+    }
+    
+    /** totalMoves - returns the total of all published moves */
+    public static long totalMoves() {
+        return totalMoves.sum();
+    }
+    
+    /** resetTotals - sets the process-wide totals to 0 */
+    public static void resetTotals() {
+        totalCompares.reset();
+        totalMoves.reset();
+    }
+    
+    /**
+     * toString - returns the counts in the form used by
+     * SortCount.printStats, with each count right-aligned.
+     */
+    public String toString() {
+        return String.format("%11d comparisons\t%11d moves", compares, moves);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * SortTiming.java
+ *
+ * Measures the wall-clock running time and the allocation rate of
+ * the algorithms in Sort and SortCount, complementing the operation
+ * counts printed by SortCount.main.
+ *
+ * Usage:
+ *
+ *     java SortTiming [size ...]
+ *
+ * For example, java -Xmx8g SortTiming 1000 1000000 100000000
+ * The default sizes are 1000, 10000, 100000 and 1000000.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * SortTiming - a small benchmark harness for the sorting algorithms.
+ * Each algorithm is run on five kinds of input (random, almost
+ * sorted, fully sorted, reversed, and many duplicates) of each
+ * requested size.  After a few untimed warm-up runs, which give the
+ * JIT compiler a chance to compile the sort, the sort is run on
+ * fresh copies of the same input until at least MIN_TIME_NS has
+ * elapsed, and the average time per sort is reported.
+ */
+public class SortTiming {
+    /* the O(n^2) algorithms are skipped for arrays larger than this */
+    private static final int QUADRATIC_MAX = 100000;
+    
+    private static final int WARMUP_RUNS = 3;
+    private static final long MIN_TIME_NS = 1000000000L;   // 1 second
+    private static final int MIN_RUNS = 3;
+    
+    private static final int[] DEFAULT_SIZES = {1000, 10000, 100000, 1000000};
+    
+    /*
+     * Algorithm - a named sorting method.  quadratic is true for the
+     * algorithms that are too slow to run on large arrays.
+     */
+    private static class Algorithm {
+        private String name;
+        private Consumer<int[]> sort;
+        private boolean quadratic;
+        
+        private Algorithm(String name, Consumer<int[]> sort, boolean quadratic) {
+            this.name = name;
+            this.sort = sort;
+            this.quadratic = quadratic;
+        }
+    }
+    
+    /*
+     * Input - a named way of generating an input array of a given size.
+     */
+    private static class Input {
+        private String name;
+        private IntFunction<int[]> generator;
+        
+        private Input(String name, IntFunction<int[]> generator) {
+            this.name = name;
+            this.generator = generator;
+        }
+    }
+    
+    private static final Algorithm[] ALGORITHMS = {
+        new Algorithm("Sort.quickSort", Sort::quickSort, false),
+        new Algorithm("Sort.mergeSort", Sort::mergeSort, false),
+        new Algorithm("Sort.parallelMergeSort", Sort::parallelMergeSort, false),
+        new Algorithm("Sort.radixSort", Sort::radixSort, false),
+        new Algorithm("Sort.timSort", Sort::timSort, false),
+        new Algorithm("Sort.parallelSampleSort", Sort::parallelSampleSort, false),
+        new Algorithm("Sort.shellSort", Sort::shellSort, false),
+        new Algorithm("Sort.insertionSort", Sort::insertionSort, true),
+        new Algorithm("Sort.selectionSort", Sort::selectionSort, true),
+        new Algorithm("Sort.bubbleSort", Sort::bubbleSort, true),
+        new Algorithm("SortCount.quickSort", SortCount::quickSort, false),
+        new Algorithm("SortCount.mergeSort", SortCount::mergeSort, false),
+        new Algorithm("SortCount.shellSort", SortCount::shellSort, false),
+        new Algorithm("SortCount.insertionSort", SortCount::insertionSort, true),
+        new Algorithm("SortCount.selectionSort", SortCount::selectionSort, true),
+        new Algorithm("SortCount.bubbleSort", SortCount::bubbleSort, true),
+        new Algorithm("SortCount.bubbleSort2", SortCount::bubbleSort2, true)
+    };
+    
+    private static final Input[] INPUTS = {
+        new Input("random", SortCount::randomArray),
+        new Input("almost sorted", SortCount::almostSortedArray),
+        new Input("sorted", SortTiming::sortedArray),
+        new Input("reversed", SortTiming::reversedArray),
+        new Input("duplicates", SortTiming::duplicatesArray)
+    };
+    
+    /** sortedArray - creates a fully sorted array of random integers */
+    public static int[] sortedArray(int n) {
+        int[] arr = SortCount.randomArray(n);
+        Sort.quickSort(arr);
+        return arr;
+    }
+    
+    /** reversedArray - creates an array of random integers in decreasing order */
+    public static int[] reversedArray(int n) {
+        int[] arr = sortedArray(n);
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+        return arr;
+    }
+    
+    /**
+     * duplicatesArray - creates an array of random integers drawn
+     * from only 16 distinct values
+     */
+    public static int[] duplicatesArray(int n) {
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) {
+            arr[i] = (int)(Math.random() * 16);
+        }
+        return arr;
+    }
+    
+    /*
+     * allocatedBytes - returns the number of bytes allocated so far by
+     * the current thread, or -1 if the JVM can't tell us.  Note that
+     * allocations made by fork/join worker threads are not included.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+    
+    /*
+     * isSorted - returns true if arr is in nondecreasing order.  Used to
+     * make sure that a fast result is also a correct one.
+     */
+    private static boolean isSorted(int[] arr) {
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i] < arr[i-1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * time - runs the specified algorithm on copies of orig and prints
+     * the average time per sort, the throughput in millions of
+     * elements per second, and the bytes allocated per sort.
+     */
+    private static void time(Algorithm alg, Input input, int[] orig) {
+        int[] copy = new int[orig.length];
+        
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            System.arraycopy(orig, 0, copy, 0, orig.length);
+            alg.sort.accept(copy);
+        }
+        if (!isSorted(copy)) {
+            throw new IllegalStateException(alg.name + " did not sort the array");
+        }
+        
+        long totalTime = 0;
+        long totalBytes = 0;
+        int runs = 0;
+        while (runs < MIN_RUNS || totalTime < MIN_TIME_NS) {
+            System.arraycopy(orig, 0, copy, 0, orig.length);
+            
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            alg.sort.accept(copy);
+            totalTime += System.nanoTime() - start;
+            totalBytes += allocatedBytes() - bytesBefore;
+            runs++;
+        }
+        
+        double msPerSort = totalTime / 1e6 / runs;
+        double melemsPerSec = (double)orig.length * runs / (totalTime / 1e9) / 1e6;
+        System.out.printf("%-26s %-14s %10d %14.3f %12.2f %16d%n",
+                          alg.name, input.name, orig.length, msPerSort,
+                          melemsPerSec, totalBytes / runs);
+    }
+    
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        
+        System.out.printf("%-26s %-14s %10s %14s %12s %16s%n",
+                          "algorithm", "input", "size", "ms/sort",
+                          "Melems/s", "bytes/sort");
+        
+        for (int size : sizes) {
+            for (Input input : INPUTS) {
+                int[] orig = input.generator.apply(size);
+                for (Algorithm alg : ALGORITHMS) {
+                    if (alg.quadratic && size > QUADRATIC_MAX) {
+                        continue;
+                    }
+                    time(alg, input, orig);
+                }
+            }
+        }
+    }
+}
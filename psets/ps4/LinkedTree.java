@@ -45,7 +45,7 @@ public class LinkedTree {
      * Create an initially balanced binary search tree
      */
     public LinkedTree(int[] keys, Object[] dataItems){
-        SortHelper.quickSort(keys, dataItems);  // Sort the keys and items
+        SortHelper.stableSort(keys, dataItems);  // Sort the keys and items
         root = balancedTree(keys, dataItems, 0, keys.length);
     }
     
@@ -6,6 +6,8 @@
  * YOU SHOULD *NOT* NEED TO MODIFY THIS FILE.
  */
 
+import java.util.Arrays;
+
 public class SortHelper {
     /*
      * swap - swap the values of the elements in positions a and b
@@ -76,4 +78,38 @@ public class SortHelper {
     public static void quickSort(int[] keys, Object[] dataItems) {
         qSort(keys, dataItems, 0, keys.length - 1); 
     }
+    
+    /*
+     * stableSort. Sorts the keys array, while also making the
+     * corresponding changes to the values in the dataItems array,
+     * just like quickSort. Unlike quickSort, it is stable -- items
+     * with equal keys keep their original relative order -- and it
+     * sorts in parallel on large arrays.
+     *
+     * Rather than swapping both arrays at every step, it packs each
+     * key and its original position into a single long (key in the
+     * high 32 bits, position in the low 32 bits), sorts the longs,
+     * and then moves every key and data item exactly once. Because
+     * the position breaks ties, equal keys stay in their original
+     * order.
+     */
+    public static void stableSort(int[] keys, Object[] dataItems) {
+        if (keys.length != dataItems.length) {
+            throw new IllegalArgumentException("keys and dataItems must have the same length");
+        }
+        
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long)keys[i] << 32) | i;
+        }
+        
+        Arrays.parallelSort(packed);
+        
+        Object[] oldItems = dataItems.clone();
+        for (int i = 0; i < n; i++) {
+            keys[i] = (int)(packed[i] >> 32);
+            dataItems[i] = oldItems[(int)packed[i]];
+        }
+    }
 }
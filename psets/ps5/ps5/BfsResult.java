@@ -0,0 +1,95 @@
+/*
+ * BfsResult.java
+ */
+
+/*
+ * The result of a breadth-first search: for each vertex, its level
+ * (the number of edges on a shortest path from the origin) and the
+ * vertex that precedes it on such a path.  Vertices that can't be
+ * reached have a level and a parent of -1.
+ */
+public class BfsResult {
+    private VertexIds graph;
+    private int origin;
+    private int[] level;       // level[v] is the number of edges from the origin to v
+    private int[] parent;      // parent[v] precedes v on a shortest path, or is -1
+    
+    public BfsResult(VertexIds graph, int origin, int[] level, int[] parent) {
+        this.graph = graph;
+        this.origin = origin;
+        this.level = level;
+        this.parent = parent;
+    }
+    
+    /* returns the id of the origin vertex */
+    public String origin() {
+        return graph.idOf(origin);
+    }
+    
+    /* returns the level of vertex number v, or -1 if it can't be reached */
+    public int level(int v) {
+        return level[v];
+    }
+    
+    /* returns the number of the vertex before v on its path, or -1 */
+    public int parent(int v) {
+        return parent[v];
+    }
+    
+    /*
+     * level - returns the number of edges on a shortest path to the
+     * vertex with the specified id, or -1 if it can't be reached.
+     */
+    public int level(String id) {
+        return level[index(id)];
+    }
+    
+    /* returns true if the vertex with the specified id can be reached */
+    public boolean isReachable(String id) {
+        return level(id) != -1;
+    }
+    
+    /*
+     * pathString - returns a string that specifies a path with the
+     * fewest edges from the origin to the vertex with the specified
+     * id, or null if it can't be reached.
+     */
+    public String pathString(String id) {
+        int v = index(id);
+        if (level[v] == -1) {
+            return null;
+        }
+        
+        String[] ids = new String[level[v] + 1];
+        for (int u = v, i = level[v]; u != -1; u = parent[u], i--) {
+            ids[i] = graph.idOf(u);
+        }
+        return String.join(" -> ", ids);
+    }
+    
+    private int index(String id) {
+        int v = graph.indexOf(id);
+        if (v == -1) {
+            throw new IllegalArgumentException("no such vertex: " + id);
+        }
+        return v;
+    }
+    
+    /*
+     * toString - returns a line for each reachable vertex giving its
+     * level and its parent, in order of vertex number.
+     */
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int v = 0; v < level.length; v++) {
+            if (level[v] != -1) {
+                str.append(graph.idOf(v)).append(" (level = ").append(level[v]);
+                if (parent[v] != -1) {
+                    str.append(", parent = ").append(graph.idOf(parent[v]));
+                }
+                str.append(")\n");
+            }
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * CoordinateHeuristic.java
+ */
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * A Heuristic that estimates the cost of a path between two vertices
+ * as the straight-line distance between their positions.  This is
+ * consistent as long as no edge costs less than the distance between
+ * its end vertices, as when the vertices are places on a map and the
+ * edge costs are road distances in the same units.
+ *
+ * Every vertex that a search can reach must have a position.  Giving
+ * the others an estimate of 0 would not be safe: a distance from a
+ * vertex with a position, next to a 0 from a nearby one without, can
+ * be far more than the cost of the path between them, and A* would
+ * then finalize some vertices with costs that are too high.  So
+ * estimate throws an IllegalArgumentException for a vertex with no
+ * position.
+ *
+ * The positions can be loaded from a text file alongside the edge
+ * file, with lines of the form
+ *     <vertex id> <x> <y>
+ */
+public class CoordinateHeuristic implements Heuristic {
+    private HashMap<String, double[]> positions = new HashMap<String, double[]>();
+    
+    /*
+     * put - gives the vertex with the specified id the specified
+     * position, replacing any previous one.
+     */
+    public void put(String id, double x, double y) {
+        positions.put(id, new double[] { x, y });
+    }
+    
+    public double estimate(String fromID, String toID) {
+        double[] from = position(fromID);
+        double[] to = position(toID);
+        return Math.hypot(from[0] - to[0], from[1] - to[1]);
+    }
+    
+    /*
+     * position - returns the position of the vertex with the specified
+     * id, throwing an IllegalArgumentException if it has none.
+     */
+    private double[] position(String id) {
+        double[] pos = positions.get(id);
+        if (pos == null) {
+            throw new IllegalArgumentException("no position for vertex: " + id);
+        }
+        return pos;
+    }
+    
+    /**
+     * load - returns a CoordinateHeuristic with the positions in the
+     * specified file.  Throws an IllegalArgumentException that gives
+     * the line number if a line can't be parsed.
+     */
+    public static CoordinateHeuristic load(Path file) throws IOException {
+        CoordinateHeuristic h = new CoordinateHeuristic();
+        
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            int lineNum = 0;
+            while ((line = in.readLine()) != null) {
+                lineNum++;
+                String[] fields = line.trim().split("\\s+");
+                try {
+                    if (fields.length < 3) {
+                        throw new NumberFormatException("missing field");
+                    }
+                    h.put(fields[0], Double.parseDouble(fields[1]),
+                          Double.parseDouble(fields[2]));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("invalid input line " + lineNum +
+                                                       ": " + line);
+                }
+            }
+        }
+        
+        return h;
+    }
+}
@@ -0,0 +1,748 @@
+/*
+ * CsrGraph.java
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/*
+ * An immutable graph stored in compressed sparse row (CSR) form.
+ * Rather than a linked list of Edge objects per vertex, all of the
+ * edges are kept in two parallel arrays, grouped by start vertex:
+ * the edges leaving vertex v are in positions offsets[v] through
+ * offsets[v + 1] - 1 of targets (the number of the end vertex) and
+ * costs (the edge's cost).
+ *
+ * This takes 12 bytes per edge rather than the 40 or more that an
+ * Edge object and its pointers need, and the algorithms read each
+ * vertex's edges from consecutive memory.  A CsrGraph is built from
+ * a Graph by calling Graph.toCsr(), and its vertices have the same
+ * numbers and its edges the same order as in that Graph.
+ *
+ * The ids are stored as UTF-8 bytes, one after another, and are found
+ * by number through idOffsets and by id through an open-addressing
+ * hash table of vertex numbers.  All of the arrays are held in
+ * buffers, so that a graph written with writeSnapshot can be opened
+ * again with openSnapshot by mapping the file into memory, without
+ * reading or decoding any of it.
+ */
+public class CsrGraph implements VertexIds {
+    /* the first int of a snapshot file ("CSRG"), and its format version */
+    private static final int MAGIC = 0x47525343;
+    private static final int VERSION = 1;
+    
+    /* the size in bytes of a snapshot's header */
+    private static final int HEADER_SIZE = 32;
+    
+    /*
+     * breadthFirstSearch switches to bottom-up steps when the edges
+     * leaving the frontier outnumber 1/ALPHA of the edges leaving the
+     * unvisited vertices, and back to top-down steps when the frontier
+     * shrinks below 1/BETA of the vertices.  These are the values
+     * suggested by Beamer, Asanovic and Patterson.  A frontier that is
+     * already below 1/BETA of the vertices stays top-down, so that the
+     * tail of a long path doesn't switch to bottom-up for one step and
+     * straight back.
+     */
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    
+    /* the number of 64-bit bitmap words handled by one parallel task */
+    private static final int CHUNK_WORDS = 64;
+    
+    private int numVertices;
+    private IntBuffer offsets;            // has numVertices + 1 elements
+    private IntBuffer targets;
+    private DoubleBuffer costs;
+    
+    /*
+     * The id of vertex v is in bytes idOffsets[v] through
+     * idOffsets[v + 1] - 1 of idBytes.  Each nonzero slot of the hash
+     * table holds a vertex number plus 1; the table's size is a power
+     * of 2, and collisions are resolved with linear probing.
+     */
+    private IntBuffer idOffsets;
+    private ByteBuffer idBytes;
+    private IntBuffer table;
+    
+    private CsrGraph transpose;           // built when first needed
+    
+    /*
+     * Constructs a CsrGraph from the specified arrays, which it takes
+     * over rather than copies.
+     */
+    CsrGraph(String[] ids, int[] offsets, int[] targets, double[] costs) {
+        if (offsets.length != ids.length + 1 || targets.length != costs.length ||
+            offsets[ids.length] != targets.length) {
+            throw new IllegalArgumentException("inconsistent CSR arrays");
+        }
+        
+        numVertices = ids.length;
+        this.offsets = IntBuffer.wrap(offsets);
+        this.targets = IntBuffer.wrap(targets);
+        this.costs = DoubleBuffer.wrap(costs);
+        
+        /* Lay out the ids' bytes end to end. */
+        byte[][] encoded = new byte[numVertices][];
+        int[] idOffsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            encoded[v] = ids[v].getBytes(StandardCharsets.UTF_8);
+            idOffsets[v + 1] = idOffsets[v] + encoded[v].length;
+        }
+        byte[] idBytes = new byte[idOffsets[numVertices]];
+        for (int v = 0; v < numVertices; v++) {
+            System.arraycopy(encoded[v], 0, idBytes, idOffsets[v], encoded[v].length);
+        }
+        this.idOffsets = IntBuffer.wrap(idOffsets);
+        this.idBytes = ByteBuffer.wrap(idBytes);
+        
+        /* Build a hash table that is at most half full. */
+        int tableSize = 2;
+        while (tableSize < 2 * numVertices) {
+            tableSize *= 2;
+        }
+        int[] table = new int[tableSize];
+        for (int v = 0; v < numVertices; v++) {
+            int slot = hash(encoded[v]) & (tableSize - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            table[slot] = v + 1;
+        }
+        this.table = IntBuffer.wrap(table);
+    }
+    
+    private CsrGraph(int numVertices, IntBuffer offsets, IntBuffer targets, DoubleBuffer costs,
+                     IntBuffer idOffsets, ByteBuffer idBytes, IntBuffer table) {
+        this.numVertices = numVertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+        this.idOffsets = idOffsets;
+        this.idBytes = idBytes;
+        this.table = table;
+    }
+    
+    /* hash - the hash code of an id's UTF-8 bytes */
+    private static int hash(byte[] id) {
+        int h = 0;
+        for (byte b : id) {
+            h = 31*h + b;
+        }
+        return h ^ (h >>> 16);
+    }
+    
+    /* returns the number of vertices */
+    public int numVertices() {
+        return numVertices;
+    }
+    
+    /* returns the number of edges */
+    public int numEdges() {
+        return targets.limit();
+    }
+    
+    /* returns the number of the vertex with the specified id, or -1 */
+    public int indexOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = table.limit() - 1;
+        
+        /* Look at each slot at most once, in case a damaged snapshot has no empty slot. */
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes <= mask && table.get(slot) != 0; probes++) {
+            int v = table.get(slot) - 1;
+            int start = idOffsets.get(v);
+            if (idOffsets.get(v + 1) - start == key.length &&
+                idBytes.slice(start, key.length).equals(ByteBuffer.wrap(key))) {
+                return v;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /* returns the id of the vertex with the specified number */
+    public String idOf(int index) {
+        int start = idOffsets.get(index);
+        byte[] id = new byte[idOffsets.get(index + 1) - start];
+        idBytes.get(start, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+    
+    /* returns the number of edges leaving vertex v */
+    public int degree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+    
+    /**
+     * transpose - returns the graph with the same vertices and every
+     * edge reversed, so that its edges leaving v are this graph's
+     * edges entering v.  It shares this graph's ids, and is built the
+     * first time it is asked for.
+     */
+    public synchronized CsrGraph transpose() {
+        if (transpose == null) {
+            int m = numEdges();
+            
+            /* Count the edges entering each vertex to find where they start. */
+            int[] inOffsets = new int[numVertices + 1];
+            for (int i = 0; i < m; i++) {
+                inOffsets[targets.get(i) + 1]++;
+            }
+            for (int v = 0; v < numVertices; v++) {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            
+            int[] sources = new int[m];
+            double[] inCosts = new double[m];
+            int[] next = Arrays.copyOf(inOffsets, numVertices);
+            for (int u = 0; u < numVertices; u++) {
+                int end = offsets.get(u + 1);
+                for (int i = offsets.get(u); i < end; i++) {
+                    int pos = next[targets.get(i)]++;
+                    sources[pos] = u;
+                    inCosts[pos] = costs.get(i);
+                }
+            }
+            
+            transpose = new CsrGraph(numVertices, IntBuffer.wrap(inOffsets),
+                                     IntBuffer.wrap(sources), DoubleBuffer.wrap(inCosts),
+                                     idOffsets, idBytes, table);
+            transpose.transpose = this;
+        }
+        return transpose;
+    }
+    
+    /*
+     * vertex - returns the number of the vertex with the specified id,
+     * throwing an IllegalArgumentException if there is none.
+     */
+    private int vertex(String id) {
+        int v = indexOf(id);
+        if (v == -1) {
+            throw new IllegalArgumentException("no such vertex: " + id);
+        }
+        return v;
+    }
+    
+    /**
+     * writeSnapshot - writes the graph to the specified file in a
+     * binary form that openSnapshot can map back into memory.  The
+     * file consists of a header (MAGIC, VERSION, the numbers of
+     * vertices and edges, the size of the hash table and the number
+     * of bytes of ids, padded to HEADER_SIZE bytes), followed by
+     * costs, offsets, targets, idOffsets, the hash table and idBytes,
+     * all little-endian.  Each of these sections must be smaller
+     * than 2 GB.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numVertices).putInt(numEdges())
+                  .putInt(table.limit()).putInt(idBytes.limit());
+            
+            long pos = HEADER_SIZE;
+            map(channel, FileChannel.MapMode.READ_WRITE, pos, 8L * numEdges())
+                .asDoubleBuffer().put(costs.duplicate().clear());
+            pos += 8L * numEdges();
+            
+            for (IntBuffer ints : new IntBuffer[] { offsets, targets, idOffsets, table }) {
+                map(channel, FileChannel.MapMode.READ_WRITE, pos, 4L * ints.limit())
+                    .asIntBuffer().put(ints.duplicate().clear());
+                pos += 4L * ints.limit();
+            }
+            
+            map(channel, FileChannel.MapMode.READ_WRITE, pos, idBytes.limit())
+                .put(idBytes.duplicate().clear());
+        }
+    }
+    
+    /**
+     * openSnapshot - returns the graph in the specified file, which
+     * must have been written by writeSnapshot.  The file is mapped
+     * into memory rather than read, so this takes time proportional
+     * to neither the number of vertices nor the number of edges; the
+     * operating system brings in the parts of the file that are used.
+     * Throws an IllegalArgumentException if the file isn't a snapshot
+     * of this version, or if its header, size or the ends of its offset
+     * arrays show that it is damaged.
+     */
+    public static CsrGraph openSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException(file + " is not a graph snapshot");
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException(file + " is not a graph snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(file + " has unsupported snapshot version " +
+                                                   version);
+            }
+            int numVertices = header.getInt();
+            int numEdges = header.getInt();
+            int tableSize = header.getInt();
+            int numIdBytes = header.getInt();
+            
+            long size = HEADER_SIZE + 8L * numEdges + 4L * (numVertices + 1) + 4L * numEdges +
+                        4L * (numVertices + 1) + 4L * tableSize + numIdBytes;
+            if (numVertices < 0 || numEdges < 0 || numIdBytes < 0 ||
+                Integer.bitCount(tableSize) != 1 || tableSize < 2L * numVertices ||
+                channel.size() != size) {
+                throw new IllegalArgumentException(file + " is a damaged graph snapshot");
+            }
+            
+            long pos = HEADER_SIZE;
+            DoubleBuffer costs = map(channel, FileChannel.MapMode.READ_ONLY, pos, 8L * numEdges)
+                                     .asDoubleBuffer();
+            pos += 8L * numEdges;
+            IntBuffer offsets = map(channel, FileChannel.MapMode.READ_ONLY, pos,
+                                    4L * (numVertices + 1)).asIntBuffer();
+            pos += 4L * (numVertices + 1);
+            IntBuffer targets = map(channel, FileChannel.MapMode.READ_ONLY, pos, 4L * numEdges)
+                                    .asIntBuffer();
+            pos += 4L * numEdges;
+            IntBuffer idOffsets = map(channel, FileChannel.MapMode.READ_ONLY, pos,
+                                      4L * (numVertices + 1)).asIntBuffer();
+            pos += 4L * (numVertices + 1);
+            IntBuffer table = map(channel, FileChannel.MapMode.READ_ONLY, pos, 4L * tableSize)
+                                  .asIntBuffer();
+            pos += 4L * tableSize;
+            ByteBuffer idBytes = map(channel, FileChannel.MapMode.READ_ONLY, pos, numIdBytes);
+            
+            /* The last offsets must match the numbers of edges and id bytes. */
+            if (offsets.get(0) != 0 || offsets.get(numVertices) != numEdges ||
+                idOffsets.get(0) != 0 || idOffsets.get(numVertices) != numIdBytes) {
+                throw new IllegalArgumentException(file + " is a damaged graph snapshot");
+            }
+            
+            return new CsrGraph(numVertices, offsets, targets, costs, idOffsets, idBytes, table);
+        }
+    }
+    
+    /*
+     * map - maps the specified region of the file as a little-endian
+     * buffer.  The mapping stays valid after the channel is closed.
+     */
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode,
+                                  long pos, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph is too large for a snapshot");
+        }
+        return channel.map(mode, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * shortestPaths - apply Dijkstra's algorithm starting from the
+     * specified origin vertex, and return the costs and parents of
+     * the shortest paths from the origin to all other vertices.
+     * Like Graph.shortestPaths, it uses an indexed min-heap.
+     */
+    public ShortestPaths shortestPaths(String originID) {
+        int origin = vertex(originID);
+        int n = numVertices;
+        
+        double[] cost = new double[n];
+        int[] parent = new int[n];
+        boolean[] done = new boolean[n];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        cost[origin] = 0;
+        heap.insert(origin, 0);
+        
+        while (!heap.isEmpty()) {
+            int w = heap.removeMin();
+            done[w] = true;
+            
+            int end = offsets.get(w + 1);
+            for (int i = offsets.get(w); i < end; i++) {
+                int x = targets.get(i);
+                if (!done[x]) {
+                    double cost_via_w = cost[w] + costs.get(i);
+                    if (cost_via_w < cost[x]) {
+                        cost[x] = cost_via_w;
+                        parent[x] = w;
+                        heap.insertOrDecrease(x, cost_via_w);
+                    }
+                }
+            }
+        }
+        
+        return new ShortestPaths(this, origin, cost, parent);
+    }
+    
+    /**
+     * breadthFirstOrder - perform a breadth-first traversal starting
+     * from the vertex with the specified ID, and return the numbers of
+     * the vertices in the order in which they are visited.  The array
+     * itself serves as the queue.
+     */
+    public int[] breadthFirstOrder(String originID) {
+        int origin = vertex(originID);
+        boolean[] encountered = new boolean[numVertices];
+        int[] queue = new int[numVertices];
+        int head = 0;
+        int tail = 0;
+        
+        encountered[origin] = true;
+        queue[tail++] = origin;
+        
+        while (head < tail) {
+            int v = queue[head++];
+            int end = offsets.get(v + 1);
+            for (int i = offsets.get(v); i < end; i++) {
+                int w = targets.get(i);
+                if (!encountered[w]) {
+                    encountered[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        
+        return Arrays.copyOf(queue, tail);
+    }
+    
+    /**
+     * breadthFirstSearch - perform a parallel breadth-first search
+     * starting from the vertex with the specified ID, and return the
+     * level and a parent of every vertex.  The levels are the same as
+     * those of a sequential search; when a vertex could have several
+     * parents, which one is chosen depends on the timing of the threads.
+     *
+     * The search is level-synchronous: all of the vertices at one level
+     * (the frontier) are expanded at once, in parallel, to produce the
+     * next frontier.  Both frontiers are bitmaps.  A step can be done
+     * in one of two ways (direction optimization):
+     *   - top-down: each frontier vertex claims its unvisited
+     *     neighbors.  This is cheap while the frontier is small.
+     *   - bottom-up: each unvisited vertex looks through the edges
+     *     entering it (in the transpose) for one from the frontier,
+     *     and stops at the first.  When the frontier is large, most
+     *     unvisited vertices find one quickly, so far fewer edges are
+     *     examined than top-down would examine.
+     */
+    public BfsResult breadthFirstSearch(String originID) {
+        int origin = vertex(originID);
+        int n = numVertices;
+        int numWords = (n + 63) / 64;
+        int numChunks = (numWords + CHUNK_WORDS - 1) / CHUNK_WORDS;
+        
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+        level[origin] = 0;
+        
+        AtomicLongArray visited = new AtomicLongArray(numWords);
+        AtomicLongArray frontier = new AtomicLongArray(numWords);
+        setBit(visited, origin);
+        setBit(frontier, origin);
+        
+        /* the number of vertices in, and edges leaving, each chunk of the next frontier */
+        long[] chunkVertices = new long[numChunks];
+        long[] chunkEdges = new long[numChunks];
+        
+        long frontierVertices = 1;
+        long frontierEdges = degree(origin);
+        long unexploredEdges = numEdges() - frontierEdges;
+        boolean bottomUp = false;
+        
+        for (int depth = 1; frontierVertices > 0; depth++) {
+            /* Decide which kind of step to take. */
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA &&
+                frontierVertices >= n / BETA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierVertices < n / BETA) {
+                bottomUp = false;
+            }
+            
+            AtomicLongArray current = frontier;
+            AtomicLongArray next = new AtomicLongArray(numWords);
+            int d = depth;
+            if (bottomUp) {
+                /* The transpose is built by the first bottom-up step, if any. */
+                CsrGraph in = transpose();
+                IntStream.range(0, numChunks).parallel().forEach(c ->
+                    bottomUpStep(in, c, d, current, next, visited, level, parent,
+                                 chunkVertices, chunkEdges));
+            } else {
+                IntStream.range(0, numChunks).parallel().forEach(c ->
+                    topDownStep(c, d, current, next, visited, level, parent,
+                                chunkVertices, chunkEdges));
+            }
+            
+            frontier = next;
+            frontierVertices = 0;
+            frontierEdges = 0;
+            for (int c = 0; c < numChunks; c++) {
+                frontierVertices += chunkVertices[c];
+                frontierEdges += chunkEdges[c];
+            }
+            unexploredEdges -= frontierEdges;
+        }
+        
+        return new BfsResult(this, origin, level, parent);
+    }
+    
+    /*
+     * topDownStep - expands the vertices in chunk c of the frontier.
+     * Each unvisited neighbor is claimed by setting its bit in visited
+     * atomically; the thread that sets the bit records the parent and
+     * level and adds the neighbor to the next frontier.  The numbers
+     * of vertices and edges that this chunk adds to the next frontier
+     * are stored in element c of the count arrays.
+     */
+    private void topDownStep(int c, int depth, AtomicLongArray frontier,
+                             AtomicLongArray next, AtomicLongArray visited,
+                             int[] level, int[] parent,
+                             long[] chunkVertices, long[] chunkEdges) {
+        long numAdded = 0;
+        long edgesAdded = 0;
+        
+        int endWord = Math.min((c + 1) * CHUNK_WORDS, frontier.length());
+        for (int word = c * CHUNK_WORDS; word < endWord; word++) {
+            long bits = frontier.get(word);
+            while (bits != 0) {
+                int v = 64 * word + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                
+                int end = offsets.get(v + 1);
+                for (int i = offsets.get(v); i < end; i++) {
+                    int w = targets.get(i);
+                    if ((visited.get(w >>> 6) & (1L << w)) == 0 && setBit(visited, w)) {
+                        level[w] = depth;
+                        parent[w] = v;
+                        setBit(next, w);
+                        numAdded++;
+                        edgesAdded += degree(w);
+                    }
+                }
+            }
+        }
+        
+        chunkVertices[c] = numAdded;
+        chunkEdges[c] = edgesAdded;
+    }
+    
+    /*
+     * bottomUpStep - looks for a parent in the frontier for each
+     * unvisited vertex in chunk c, using the transpose in to find the
+     * edges entering the vertex.  Only this task touches chunk c's
+     * words of visited and next, so they can be updated a word at a
+     * time.  The counts are stored as in topDownStep.
+     */
+    private void bottomUpStep(CsrGraph in, int c, int depth, AtomicLongArray frontier,
+                              AtomicLongArray next, AtomicLongArray visited,
+                              int[] level, int[] parent,
+                              long[] chunkVertices, long[] chunkEdges) {
+        long numAdded = 0;
+        long edgesAdded = 0;
+        
+        int endWord = Math.min((c + 1) * CHUNK_WORDS, visited.length());
+        for (int word = c * CHUNK_WORDS; word < endWord; word++) {
+            long unvisited = ~visited.get(word);
+            if (word == visited.length() - 1 && numVertices % 64 != 0) {
+                unvisited &= (1L << numVertices) - 1;   // no vertices past the end
+            }
+            
+            long added = 0;
+            while (unvisited != 0) {
+                int w = 64 * word + Long.numberOfTrailingZeros(unvisited);
+                unvisited &= unvisited - 1;
+                
+                int end = in.offsets.get(w + 1);
+                for (int i = in.offsets.get(w); i < end; i++) {
+                    int u = in.targets.get(i);
+                    if ((frontier.get(u >>> 6) & (1L << u)) != 0) {
+                        level[w] = depth;
+                        parent[w] = u;
+                        added |= 1L << w;
+                        numAdded++;
+                        edgesAdded += degree(w);
+                        break;
+                    }
+                }
+            }
+            
+            if (added != 0) {
+                visited.set(word, visited.get(word) | added);
+                next.set(word, added);
+            }
+        }
+        
+        chunkVertices[c] = numAdded;
+        chunkEdges[c] = edgesAdded;
+    }
+    
+    /*
+     * setBit - sets bit v of the bitmap atomically, and returns true
+     * if this call set it, or false if it was already set.
+     */
+    private static boolean setBit(AtomicLongArray bitmap, int v) {
+        int word = v >>> 6;
+        long mask = 1L << v;
+        long old = bitmap.get(word);
+        while ((old & mask) == 0) {
+            if (bitmap.compareAndSet(word, old, old | mask)) {
+                return true;
+            }
+            old = bitmap.get(word);
+        }
+        return false;
+    }
+    
+    /**
+     * depthFirstOrder - perform a depth-first traversal starting from
+     * the vertex with the specified ID, and return the numbers of the
+     * vertices in the order in which they are visited.  The vertices
+     * are visited in the same order as Graph.depthFirstTrav visits
+     * them, but an explicit stack is used instead of recursion, so
+     * long paths can't overflow the call stack.  next[v] is the
+     * position in targets of the next edge of v to try.
+     */
+    public int[] depthFirstOrder(String originID) {
+        int origin = vertex(originID);
+        boolean[] done = new boolean[numVertices];
+        int[] next = new int[numVertices];
+        int[] stack = new int[numVertices];
+        int[] order = new int[numVertices];
+        int top = 0;
+        int count = 0;
+        
+        done[origin] = true;
+        order[count++] = origin;
+        next[origin] = offsets.get(origin);
+        stack[top++] = origin;
+        
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] == offsets.get(v + 1)) {
+                top--;          // all of v's edges have been tried
+                continue;
+            }
+            
+            int w = targets.get(next[v]++);
+            if (!done[w]) {
+                done[w] = true;
+                order[count++] = w;
+                next[w] = offsets.get(w);
+                stack[top++] = w;
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+    
+    /**
+     * prim - apply Prim's algorithm starting from the specified vertex
+     * to find a minimum spanning tree for the part of the graph that
+     * can be reached from it.
+     *
+     * The vertices that aren't yet in the tree are kept in an indexed
+     * min-heap, keyed by the cost of the cheapest edge that joins them
+     * to the tree; parent[w] is the tree vertex at the other end of
+     * that edge, and best[w] its cost.  This takes O(E log V) time.
+     */
+    public SpanningTree prim(String originID) {
+        int origin = vertex(originID);
+        int n = numVertices;
+        
+        int[] parent = new int[n];
+        double[] best = new double[n];
+        boolean[] done = new boolean[n];
+        
+        int[] treeStarts = new int[Math.max(n - 1, 0)];
+        int[] treeEnds = new int[Math.max(n - 1, 0)];
+        double[] treeCosts = new double[Math.max(n - 1, 0)];
+        int numTreeEdges = 0;
+        
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        heap.insert(origin, 0);
+        
+        while (!heap.isEmpty()) {
+            int v = heap.removeMin();
+            done[v] = true;
+            if (v != origin) {
+                treeStarts[numTreeEdges] = parent[v];
+                treeEnds[numTreeEdges] = v;
+                treeCosts[numTreeEdges] = best[v];
+                numTreeEdges++;
+            }
+            
+            int end = offsets.get(v + 1);
+            for (int i = offsets.get(v); i < end; i++) {
+                int w = targets.get(i);
+                double cost = costs.get(i);
+                if (!done[w] && (!heap.contains(w) || cost < best[w])) {
+                    parent[w] = v;
+                    best[w] = cost;
+                    heap.insertOrDecrease(w, cost);
+                }
+            }
+        }
+        
+        return new SpanningTree(this, Arrays.copyOf(treeStarts, numTreeEdges),
+                                Arrays.copyOf(treeEnds, numTreeEdges),
+                                Arrays.copyOf(treeCosts, numTreeEdges));
+    }
+    
+    /**
+     * kruskal - apply Kruskal's algorithm to find a minimum spanning
+     * forest for the whole graph, treating each edge as undirected.
+     *
+     * The edges are taken from a min-heap in order of increasing cost,
+     * and an edge is added if its end vertices are still in different
+     * trees, which a DisjointSet keeps track of.  It stops as soon as
+     * the forest is a single tree, so edges that are too costly to be
+     * in it are never removed from the heap.  This takes O(E log E)
+     * time.
+     */
+    public SpanningTree kruskal() {
+        int n = numVertices;
+        int m = numEdges();
+        
+        /* starts[i] is the start vertex of edge i. */
+        int[] starts = new int[m];
+        IndexedMinHeap heap = new IndexedMinHeap(m);
+        for (int v = 0; v < n; v++) {
+            int end = offsets.get(v + 1);
+            for (int i = offsets.get(v); i < end; i++) {
+                starts[i] = v;
+                heap.insert(i, costs.get(i));
+            }
+        }
+        
+        int[] treeStarts = new int[Math.max(n - 1, 0)];
+        int[] treeEnds = new int[Math.max(n - 1, 0)];
+        double[] treeCosts = new double[Math.max(n - 1, 0)];
+        int numTreeEdges = 0;
+        
+        DisjointSet trees = new DisjointSet(n);
+        while (trees.numSets() > 1 && !heap.isEmpty()) {
+            int i = heap.removeMin();
+            if (trees.union(starts[i], targets.get(i))) {
+                treeStarts[numTreeEdges] = starts[i];
+                treeEnds[numTreeEdges] = targets.get(i);
+                treeCosts[numTreeEdges] = costs.get(i);
+                numTreeEdges++;
+            }
+        }
+        
+        return new SpanningTree(this, Arrays.copyOf(treeStarts, numTreeEdges),
+                                Arrays.copyOf(treeEnds, numTreeEdges),
+                                Arrays.copyOf(treeCosts, numTreeEdges));
+    }
+}
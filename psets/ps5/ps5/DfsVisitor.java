@@ -0,0 +1,33 @@
+/*
+ * DfsVisitor.java
+ */
+
+/*
+ * An interface for objects that are told about the steps of a
+ * depth-first search, such as Graph.depthFirstSearch.  Vertices are
+ * identified by their numbers.  Each method does nothing by default,
+ * so a visitor only needs to override the ones it cares about.
+ */
+public interface DfsVisitor {
+    /*
+     * The kinds of edges in a depth-first search of a directed graph:
+     *   TREE    - leads to a vertex that hadn't yet been visited
+     *   BACK    - leads to an ancestor of the current vertex (or to
+     *             the vertex itself), which means there is a cycle
+     *   FORWARD - leads to a descendant that has already been finished
+     *   CROSS   - leads to a vertex in another, finished subtree
+     */
+    enum EdgeType { TREE, BACK, FORWARD, CROSS }
+    
+    /* called when vertex v is first visited */
+    default void preVisit(int v) {
+    }
+    
+    /* called when all of the edges leaving vertex v have been explored */
+    default void postVisit(int v) {
+    }
+    
+    /* called for each edge from vertex v to vertex w, with its kind */
+    default void edge(int v, int w, EdgeType type) {
+    }
+}
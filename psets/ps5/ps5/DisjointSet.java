@@ -0,0 +1,78 @@
+/*
+ * DisjointSet.java
+ */
+
+/*
+ * A disjoint-set (union-find) structure for the ints 0 ... n - 1,
+ * which starts out with each int in a set by itself.  Each set is a
+ * tree whose root represents the set.  find compresses the path that
+ * it follows, so that every int on it points straight to the root,
+ * and union hangs the shorter tree below the root of the taller one
+ * (union by rank).  Together these make any sequence of m operations
+ * take nearly O(m) time.
+ */
+public class DisjointSet {
+    private int[] parent;      // parent[i] is i's parent, or i itself for a root
+    private byte[] rank;       // an upper bound on the height of a root's tree
+    private int numSets;
+    
+    /*
+     * Constructs a DisjointSet in which each of the ints 0 ... n - 1
+     * is in a set of its own.
+     */
+    public DisjointSet(int n) {
+        parent = new int[n];
+        rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        numSets = n;
+    }
+    
+    /* returns the number of sets */
+    public int numSets() {
+        return numSets;
+    }
+    
+    /*
+     * find - returns the root of the set containing i, after making
+     * every int on the path from i to the root point to the root.
+     */
+    public int find(int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        
+        while (parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+    
+    /*
+     * union - merges the sets containing i and j.  Returns true if
+     * they were different sets, and false if they were already the
+     * same set.
+     */
+    public boolean union(int i, int j) {
+        int rootI = find(i);
+        int rootJ = find(j);
+        if (rootI == rootJ) {
+            return false;
+        }
+        
+        if (rank[rootI] < rank[rootJ]) {
+            parent[rootI] = rootJ;
+        } else if (rank[rootI] > rank[rootJ]) {
+            parent[rootJ] = rootI;
+        } else {
+            parent[rootJ] = rootI;
+            rank[rootI]++;
+        }
+        numSets--;
+        return true;
+    }
+}
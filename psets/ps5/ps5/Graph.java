@@ -5,39 +5,26 @@
  */
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * An implementation of a Graph ADT.
  */
-public class Graph {
+public class Graph implements VertexIds {
     /*
      * Vertex - a private inner class for representing a vertex.
      */
     private class Vertex {
         private String id;
+        private int index;            // position in vertexArray
         private Edge edges;           // adjacency list, sorted by edge cost
+        private Edge inEdges;         // list of the edges that end at this vertex
         private Vertex next;          // next Vertex in linked list
-        private boolean encountered;
-        private boolean done;
-        private Vertex parent;        // preceding vertex in path from root
-        private double cost;          // cost of shortest known path
         
         private Vertex(String id) {
             this.id = id;
-            cost = Double.POSITIVE_INFINITY;
-        }
-        
-        /*
-         * reinit - reset the starting values of the fields used by
-         * the various algorithms, removing any values set by previous
-         * uses of the algorithms.
-         */
-        private void reinit() {
-            done = false;
-            encountered = false;
-            parent = null;
-            cost = Double.POSITIVE_INFINITY;
         }
         
         /*
@@ -50,20 +37,30 @@ public class Graph {
             edges = e;
         }
         
+        /*
+         * addToInEdges - add the specified edge, which ends at this
+         * vertex, to the list of edges entering it.
+         */
+        private void addToInEdges(Edge e) {
+            e.nextIn = inEdges;
+            inEdges = e;
+        }
+        
         /*
          * pathString - returns a string that specifies the path from
-         * the root of the current spanning tree (if there is one) to
-         * this vertex.  If this method is called after performing
-         * Dijkstra's algorithm, the returned string will specify the
-         * shortest path.
+         * the root of the spanning tree recorded in the specified
+         * state (if there is one) to this vertex.  If this method is
+         * called during Dijkstra's algorithm, the returned string will
+         * specify the shortest path.
          */
-        private String pathString() {
+        private String pathString(SearchState state) {
             String str;
             
-            if (parent == null) {
+            int parent = state.parent(index);
+            if (parent == -1) {
                 str = id;         /* base case: this vertex is the root */
             } else {
-                str = parent.pathString() + " -> " + id;
+                str = vertexArray[parent].pathString(state) + " -> " + id;
             }
             
             return str;
@@ -106,6 +103,7 @@ public class Graph {
         private Vertex end;
         private double cost;
         private Edge next;            // next Edge in adjacency list
+        private Edge nextIn;          // next Edge in end vertex's inEdges list
         
         private Edge(Vertex start, Vertex end, double cost) {
             this.start = start;
@@ -120,31 +118,65 @@ public class Graph {
     private Vertex vertices;
     
     /*
-     * reinitVertices - private helper method that resets the starting
-     * state of all of the vertices in the graph, removing any values
-     * set by previous uses of the algorithms.
+     * The same vertices, stored by number: vertexArray[i] is the
+     * vertex with index i.  The algorithms that keep their state in
+     * arrays, such as shortestPaths, use these numbers.
      */
-    private void reinitVertices() {
-        Vertex v = vertices;
-        while (v != null) {
-            v.reinit();
-            v = v.next;
+    private Vertex[] vertexArray = new Vertex[16];
+    private int numVertices = 0;
+    
+    /* A hash table mapping each id to its vertex, so that lookups take O(1) time. */
+    private HashMap<String, Vertex> vertexMap = new HashMap<String, Vertex>();
+    
+    /*
+     * The CsrGraph returned by the last call to toCsr, or null if the
+     * graph has changed since then.  Adding a vertex or an edge clears it.
+     */
+    private CsrGraph csr;
+    
+    /*
+     * The SearchStates that no traversal is using.  The algorithms
+     * keep their per-vertex state in a SearchState rather than in the
+     * vertices, so that different threads can run them on the same
+     * graph at the same time, as long as none of them changes it.
+     * Each traversal borrows a SearchState from this pool and returns
+     * it when it finishes, so the pool holds only as many as have
+     * been in use at once, however many threads have used the graph.
+     */
+    private ConcurrentLinkedQueue<SearchState> freeSearches =
+        new ConcurrentLinkedQueue<SearchState>();
+    
+    /*
+     * borrowSearch - private helper method that takes a SearchState
+     * from the pool, or makes a new one if the pool is empty, and
+     * resets it for a new traversal of the graph.  The caller must
+     * give it back with releaseSearch.
+     */
+    private SearchState borrowSearch() {
+        SearchState state = freeSearches.poll();
+        if (state == null) {
+            return new SearchState(numVertices);
         }
+        state.reset(numVertices);
+        return state;
+    }
+    
+    /*
+     * releaseSearch - private helper method that returns a SearchState
+     * from borrowSearch to the pool.
+     */
+    private void releaseSearch(SearchState state) {
+        freeSearches.add(state);
     }
     
     /*
      * getVertex - private helper method that returns a reference to
      * the vertex with the specified id.  If the vertex isn't
-     * in the graph, it returns null.
+     * in the graph, it returns null.  Uses vertexMap rather than
+     * walking the linked list of vertices.
      */
     private Vertex getVertex(String id) {
-        Vertex v = vertices;
-        
-        while (v != null && !v.id.equals(id)) {
-            v = v.next;
-        }
-        
-        return v;
+        return vertexMap.get(id);
     }
     
     /*
@@ -158,9 +190,60 @@ public class Graph {
         v.next = vertices;
         vertices = v;
         
+        /* Give it the next number. */
+        if (numVertices == vertexArray.length) {
+            vertexArray = Arrays.copyOf(vertexArray, 2 * numVertices);
+        }
+        v.index = numVertices;
+        vertexArray[numVertices] = v;
+        numVertices++;
+        
+        vertexMap.put(id, v);
+        csr = null;
         return v;
     }
     
+    /**
+     * numVertices - returns the number of vertices in the graph.
+     */
+    public int numVertices() {
+        return numVertices;
+    }
+    
+    /**
+     * indexOf - returns the number of the vertex with the specified
+     * id, or -1 if there is no such vertex.  The vertices are numbered
+     * 0, 1, 2, ... in the order in which they were added.
+     */
+    public int indexOf(String id) {
+        Vertex v = getVertex(id);
+        return (v == null ? -1 : v.index);
+    }
+    
+    /**
+     * intern - returns the number of the vertex with the specified
+     * id, adding a vertex with that id if there isn't one already.
+     * Loaders can intern each id once and then add edges by number,
+     * which keeps only one copy of each id string.
+     */
+    public int intern(String id) {
+        Vertex v = getVertex(id);
+        if (v == null) {
+            v = addVertex(id);
+        }
+        return v.index;
+    }
+    
+    /**
+     * idOf - returns the id of the vertex with the specified number.
+     */
+    public String idOf(int index) {
+        if (index < 0 || index >= numVertices) {
+            throw new IndexOutOfBoundsException("no vertex number " + index);
+        }
+        return vertexArray[index].id;
+    }
+    
     /**
      * addEdge - add an edge with the specified cost, and with start
      * and end vertices that have the specified IDs.  The edge will
@@ -181,6 +264,73 @@ public class Graph {
         
         Edge e = new Edge(start, end, cost);
         start.addToAdjacencyList(e);
+        e.end.addToInEdges(e);
+        csr = null;
+    }
+    
+    /**
+     * addEdge - add an edge with the specified cost between the
+     * vertices with the specified numbers (see intern).
+     */
+    public void addEdge(int startIndex, int endIndex, double cost) {
+        if (startIndex < 0 || startIndex >= numVertices ||
+            endIndex < 0 || endIndex >= numVertices) {
+            throw new IndexOutOfBoundsException("no such vertex number");
+        }
+        
+        Vertex start = vertexArray[startIndex];
+        Edge e = new Edge(start, vertexArray[endIndex], cost);
+        start.addToAdjacencyList(e);
+        e.end.addToInEdges(e);
+        csr = null;
+    }
+    
+    /**
+     * toCsr - returns an immutable copy of the graph in compressed
+     * sparse row form.  Its vertices have the same numbers as in this
+     * graph, and each vertex's edges are in the same order as in its
+     * adjacency list.  Later changes to this graph don't affect it.
+     *
+     * The copy is kept until the graph next changes, so calling toCsr
+     * again, or calling breadthFirstSearch or kruskal, on an unchanged
+     * graph doesn't build it again.
+     */
+    public synchronized CsrGraph toCsr() {
+        if (csr == null) {
+            csr = buildCsr();
+        }
+        return csr;
+    }
+    
+    /*
+     * buildCsr - private helper method that builds the CsrGraph
+     * returned by toCsr.
+     */
+    private CsrGraph buildCsr() {
+        /* Count each vertex's edges to find where they start. */
+        int[] offsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            int degree = 0;
+            for (Edge e = vertexArray[v].edges; e != null; e = e.next) {
+                degree++;
+            }
+            offsets[v + 1] = offsets[v] + degree;
+        }
+        
+        String[] ids = new String[numVertices];
+        int[] targets = new int[offsets[numVertices]];
+        double[] costs = new double[offsets[numVertices]];
+        for (int v = 0; v < numVertices; v++) {
+            ids[v] = vertexArray[v].id;
+            int i = offsets[v];
+            for (Edge e = vertexArray[v].edges; e != null; e = e.next) {
+                targets[i] = e.end.index;
+                costs[i] = e.cost;
+                i++;
+            }
+        }
+        
+        return new CsrGraph(ids, offsets, targets, costs);
     }
     
     /**
@@ -204,96 +354,215 @@ public class Graph {
      * specified file.  The file should be a text file consisting of
      * lines that specify the edges of the graph in the following form:
      *     <start vertex data> <end vertex data> <cost>
+     * The file is parsed by GraphLoader, in parallel if it is large.
      */
     public void initFromFile(String fileName) {
-        String lineString = "";
-        
         try {
-            /* This Scanner will scan the file, one line at a time. */
-            Scanner file = new Scanner(new File(fileName));
-            
-            /* Parse the file, one line at a time. */
-            while (file.hasNextLine()) {
-                lineString = file.nextLine();
-                Scanner line = new Scanner(lineString);
-                
-                String startID = line.next();
-                String endID = line.next();
-                double cost = line.nextDouble();
-                addEdge(startID, endID, cost);
-            }
+            GraphLoader.load(this, Paths.get(fileName), true);
         } catch (IOException e) {
             System.out.println("Error accessing " + fileName);
             System.exit(1);
-        } catch (NoSuchElementException e) {
-            System.out.println("invalid input line: " + lineString);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
             System.exit(1);
         }
     }
     
     /**
      * depthFirstTrav - perform a depth-first traversal starting from
-     * the vertex with the specified ID.  After making sure that the
-     * start vertex exists, it makes an initial call to the recursive
-     * method dfTrav, which does the actual traversal.
+     * the vertex with the specified ID, printing the vertices in the
+     * order in which they are visited.  It uses depthFirstSearch, so
+     * long paths can't overflow the call stack.
      */
     public void depthFirstTrav(String originID) {
-        reinitVertices();
-        
+        depthFirstSearch(originID, new DfsVisitor() {
+            public void preVisit(int v) {
+                System.out.println(vertexArray[v].id);
+            }
+        });
+    }
+    
+    /**
+     * depthFirstSearch - perform a depth-first search starting from
+     * the vertex with the specified ID, telling the visitor about each
+     * vertex and edge that it reaches.
+     */
+    public void depthFirstSearch(String originID, DfsVisitor visitor) {
         /* Get the specified start vertex. */
         Vertex start = getVertex(originID);
         if (start == null) {
             throw new IllegalArgumentException("no such vertex: " + originID);
         }
         
-        /* Start the recursion rolling... */
-        dfTrav(start, null);
+        DepthFirstSearch dfs = new DepthFirstSearch(visitor);
+        try {
+            dfs.search(start.index);
+        } finally {
+            releaseSearch(dfs.state);
+        }
+    }
+    
+    /**
+     * depthFirstSearchAll - perform depth-first searches that together
+     * visit every vertex in the graph, starting a new search from the
+     * lowest-numbered vertex that hasn't been visited yet.
+     */
+    public void depthFirstSearchAll(DfsVisitor visitor) {
+        DepthFirstSearch dfs = new DepthFirstSearch(visitor);
+        try {
+            for (int v = 0; v < numVertices; v++) {
+                if (!dfs.state.isEncountered(v)) {
+                    dfs.search(v);
+                }
+            }
+        } finally {
+            releaseSearch(dfs.state);
+        }
     }
     
     /*
-     * dfTrav - a recursive method used to perform a depth-first
-     * traversal, starting from the specified vertex v.  The parent
-     * parameter specifies v's parent in the depth-first spanning
-     * tree.  In the initial invocation, the value of parent should be
-     * null, because the starting vertex is the root of the spanning
-     * tree.
-     */
-    private static void dfTrav(Vertex v, Vertex parent) {
-        /* Visit v. */
-        System.out.println(v.id);
-        v.done = true;
-        v.parent = parent;
-        
-        Edge e = v.edges;
-        while (e != null) {
-            Vertex w = e.end;
-            if (!w.done) {
-                dfTrav(w, v);
+     * DepthFirstSearch - a private inner class that performs
+     * depth-first searches using an explicit stack rather than
+     * recursion.  In the search state, a vertex is encountered once
+     * it has been visited and done once it has been finished, so the
+     * vertices that are encountered but not done are exactly those
+     * on the stack.  nextEdge[v] is the next edge of v to explore,
+     * and discovery[v] is the number of vertices visited before v,
+     * plus 1, which is used to tell forward edges from cross edges.
+     */
+    private class DepthFirstSearch {
+        private DfsVisitor visitor;
+        private SearchState state;
+        private Edge[] nextEdge = new Edge[numVertices];
+        private int[] discovery = new int[numVertices];
+        private int[] stack = new int[numVertices];
+        private int numVisited = 0;
+        
+        private DepthFirstSearch(DfsVisitor visitor) {
+            this.visitor = visitor;
+            state = borrowSearch();
+        }
+        
+        /*
+         * visit - visits vertex v and pushes it on the stack.
+         */
+        private void visit(int v, int top) {
+            state.setEncountered(v);
+            numVisited++;
+            discovery[v] = numVisited;
+            nextEdge[v] = vertexArray[v].edges;
+            stack[top] = v;
+            visitor.preVisit(v);
+        }
+        
+        /*
+         * search - visits every vertex that can be reached from the
+         * specified vertex and hasn't been visited yet.  Each vertex's
+         * edges are explored in the order of its adjacency list, so
+         * the vertices are visited in the same order as a recursive
+         * depth-first traversal would visit them.
+         */
+        private void search(int root) {
+            visit(root, 0);
+            int top = 1;
+            
+            while (top > 0) {
+                int v = stack[top - 1];
+                Edge e = nextEdge[v];
+                
+                /* If all of v's edges have been explored, v is finished. */
+                if (e == null) {
+                    top--;
+                    state.setDone(v);
+                    visitor.postVisit(v);
+                    continue;
+                }
+                nextEdge[v] = e.next;
+                
+                int w = e.end.index;
+                if (!state.isEncountered(w)) {
+                    visitor.edge(v, w, DfsVisitor.EdgeType.TREE);
+                    state.setParent(w, v);
+                    visit(w, top);
+                    top++;
+                } else if (!state.isDone(w)) {
+                    visitor.edge(v, w, DfsVisitor.EdgeType.BACK);
+                } else if (discovery[v] < discovery[w]) {
+                    visitor.edge(v, w, DfsVisitor.EdgeType.FORWARD);
+                } else {
+                    visitor.edge(v, w, DfsVisitor.EdgeType.CROSS);
+                }
             }
-            e = e.next;
         }
     }
     
+    /**
+     * hasCycle - returns true if the graph has a cycle, treating each
+     * edge as directed, and false otherwise.  Note that a graph in
+     * which each undirected edge is stored as a pair of edges, one in
+     * each direction, has a cycle for every edge.
+     */
+    public boolean hasCycle() {
+        boolean[] found = new boolean[1];
+        depthFirstSearchAll(new DfsVisitor() {
+            public void edge(int v, int w, EdgeType type) {
+                if (type == EdgeType.BACK) {
+                    found[0] = true;
+                }
+            }
+        });
+        return found[0];
+    }
+    
+    /**
+     * topologicalSort - returns the ids of the vertices in an order in
+     * which every edge goes from an earlier vertex to a later one.
+     * This is the reverse of the order in which a depth-first search
+     * finishes them.  Throws an IllegalStateException if the graph
+     * has a cycle, in which case there is no such order.
+     */
+    public String[] topologicalSort() {
+        String[] order = new String[numVertices];
+        depthFirstSearchAll(new DfsVisitor() {
+            private int next = numVertices - 1;
+            
+            public void postVisit(int v) {
+                order[next] = vertexArray[v].id;
+                next--;
+            }
+            
+            public void edge(int v, int w, EdgeType type) {
+                if (type == EdgeType.BACK) {
+                    throw new IllegalStateException("graph has a cycle through " +
+                                                    vertexArray[w].id);
+                }
+            }
+        });
+        return order;
+    }
+    
     /**
      * breadthFirstTrav - perform a breadth-first traversal starting from
      * the vertex with the specified ID.
      */
     public void breadthFirstTrav(String originID) {
-        reinitVertices();
-        
         /* Get the specified start vertex. */
         Vertex origin = getVertex(originID);
         if (origin == null) {
             throw new IllegalArgumentException("no such vertex: " + originID);
         }
         
-        bfTrav(origin);
+        SearchState state = borrowSearch();
+        try {
+            bfTrav(origin, state);
+        } finally {
+            releaseSearch(state);
+        }
     }
     
-    private static void bfTrav(Vertex origin) {
+    private static void bfTrav(Vertex origin, SearchState state) {
         /* Mark the origin as encountered, and add it to the queue. */
-        origin.encountered = true;
-        origin.parent = null;
+        state.setEncountered(origin.index);
         Queue<Vertex> q = new LLQueue<Vertex>();
         q.insert(origin);
         
@@ -306,9 +575,9 @@ public class Graph {
             Edge e = v.edges;
             while (e != null) {
                 Vertex w = e.end;
-                if (!w.encountered) {
-                    w.encountered = true;
-                    w.parent = v;
+                if (!state.isEncountered(w.index)) {
+                    state.setEncountered(w.index);
+                    state.setParent(w.index, v.index);
                     q.insert(w);
                 }
                 e = e.next;
@@ -316,6 +585,18 @@ public class Graph {
         }
     }
     
+    /**
+     * breadthFirstSearch - perform a breadth-first search starting
+     * from the vertex with the specified ID, and return the level
+     * (number of edges from the origin) and a parent of every vertex.
+     * The search runs in parallel on a compressed copy of the graph
+     * (see toCsr and CsrGraph.breadthFirstSearch), which is built by
+     * the first search and reused until the graph changes.
+     */
+    public BfsResult breadthFirstSearch(String originID) {
+        return toCsr().breadthFirstSearch(originID);
+    }
+    
     /**
      * dijkstra - apply Dijkstra's algorithm starting from the
      * specified origin vertex to find the shortest path from the
@@ -329,22 +610,31 @@ public class Graph {
      * path.
      */
     public void dijkstra(String originID) {
-        /* This will give all vertices an infinite cost. */
-        reinitVertices();
-        
-        /* Get the origin and set its cost to 0. */
         Vertex origin = getVertex(originID);
         if (origin == null) {
             throw new IllegalArgumentException("no such vertex: " + originID);
         }
-        origin.cost = 0;
+        
+        /* This will give all vertices an infinite cost. */
+        SearchState state = borrowSearch();
+        try {
+            dijkstra(origin, state);
+        } finally {
+            releaseSearch(state);
+        }
+    }
+    
+    private void dijkstra(Vertex origin, SearchState state) {
+        /* Set the origin's cost to 0. */
+        state.setCost(origin.index, 0);
         
         while (true) {
             /* Find the unfinalized vertex with the minimal cost. */
             Vertex w = null;
             Vertex v = vertices;
             while (v != null) {
-                if (!v.done && (w == null || v.cost < w.cost)) {
+                if (!state.isDone(v.index) &&
+                    (w == null || state.cost(v.index) < state.cost(w.index))) {
                     w = v;
                 }
                 v = v.next;
@@ -353,28 +643,29 @@ public class Graph {
             /* 
              * If there are no unfinalized vertices, or if all of the
              * unfinalized vertices are unreachable from the origin
-             * (which is the case if the w.cost is infinite), then
+             * (which is the case if w's cost is infinite), then
              * we're done.
              */
-            if (w == null || w.cost == Double.POSITIVE_INFINITY) {
+            if (w == null || state.cost(w.index) == Double.POSITIVE_INFINITY) {
                 return;
             }
             
             /* Finalize w. */
-            System.out.println("\tfinalizing " + w.id + " (cost = " + w.cost +
-              (w.parent == null ? ")" : ", parent = " + w.parent.id + ")"));
-            System.out.println("\t\tpath = " + w.pathString());
-            w.done = true;
+            int parent = state.parent(w.index);
+            System.out.println("\tfinalizing " + w.id + " (cost = " + state.cost(w.index) +
+              (parent == -1 ? ")" : ", parent = " + vertexArray[parent].id + ")"));
+            System.out.println("\t\tpath = " + w.pathString(state));
+            state.setDone(w.index);
             
             /* Try to improve the estimates of w's unfinalized neighbors. */
             Edge e = w.edges;
             while (e != null) {
                 Vertex x = e.end;
-                if (!x.done) {
-                    double cost_via_w = w.cost + e.cost;
-                    if (cost_via_w < x.cost) {
-                        x.cost = cost_via_w;
-                        x.parent = w;
+                if (!state.isDone(x.index)) {
+                    double cost_via_w = state.cost(w.index) + e.cost;
+                    if (cost_via_w < state.cost(x.index)) {
+                        state.setCost(x.index, cost_via_w);
+                        state.setParent(x.index, w.index);
                     }
                 }
                 e = e.next;
@@ -383,63 +674,405 @@ public class Graph {
     }
     
     /**
-     * prim - apply Prim's algorithm starting from the specified
-     * vertex to find a minimum spanning tree for the graph.  
-     * The method assumes that the graph is connected.
+     * shortestPaths - apply Dijkstra's algorithm starting from the
+     * specified origin vertex, and return the costs and parents of
+     * the shortest paths from the origin to all other vertices.
      *
-     * The "done" instance variable is used to divide the vertices
-     * into two sets.  Initially, the origin is in one set (the one
-     * containing vertices for which done == true), and all other
-     * vertices are in a second set (the one containing vertices for
-     * which done == false).  We repeatedly add the lowest-cost edge
-     * joining a vertex in the first set to a vertex in the second
-     * set, and then we move the vertex in the second set to the first
-     * set by setting its done field to true.
+     * Rather than scanning all of the vertices to find the next one
+     * to finalize, as dijkstra does, it keeps the vertices that have
+     * been encountered but not finalized in an indexed min-heap
+     * ordered by cost, and lowers a vertex's cost in the heap when a
+     * cheaper path to it is found.  This takes O((V + E) log V) time
+     * rather than O(V^2).  It prints nothing.
      */
-    public void prim(String originID) {
-        reinitVertices();
-        
-        /* Get the origin and mark it as done. */
+    public ShortestPaths shortestPaths(String originID) {
         Vertex origin = getVertex(originID);
         if (origin == null) {
             throw new IllegalArgumentException("no such vertex: " + originID);
         }
-        origin.done = true;
         
-        while (true) {
-            /* 
-             * Find the minimal-cost edge linking a done vertex with
-             * one that isn't done. 
-             */
-            Edge edgeToAdd = null;
-            Vertex v = vertices;
-            while (v != null) {
-                if (v.done) {
-                    Edge e = v.edges;
-                    while (e != null) {
-                        if (!e.end.done && 
-                            (edgeToAdd == null || e.cost < edgeToAdd.cost)) {
-                            edgeToAdd = e;
-                        }
-                        e = e.next;
+        double[] cost = new double[numVertices];
+        int[] parent = new int[numVertices];
+        boolean[] done = new boolean[numVertices];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        
+        IndexedMinHeap heap = new IndexedMinHeap(numVertices);
+        cost[origin.index] = 0;
+        heap.insert(origin.index, 0);
+        
+        while (!heap.isEmpty()) {
+            /* Finalize the unfinalized vertex with the minimal cost. */
+            int w = heap.removeMin();
+            done[w] = true;
+            
+            /* Try to improve the estimates of w's unfinalized neighbors. */
+            Edge e = vertexArray[w].edges;
+            while (e != null) {
+                int x = e.end.index;
+                if (!done[x]) {
+                    double cost_via_w = cost[w] + e.cost;
+                    if (cost_via_w < cost[x]) {
+                        cost[x] = cost_via_w;
+                        parent[x] = w;
+                        heap.insertOrDecrease(x, cost_via_w);
                     }
                 }
-                v = v.next;
+                e = e.next;
+            }
+        }
+        
+        return new ShortestPaths(this, origin.index, cost, parent);
+    }
+    
+    /*
+     * PointSearch - a private inner class holding the state of one
+     * direction of a point-to-point search: the per-vertex state and
+     * an indexed min-heap of the vertices that have been reached but
+     * not finalized.  Both can be reset in time proportional to the
+     * number of vertices the previous search touched, so they are
+     * kept in a pool (see freePointSearches) and reused.
+     */
+    private class PointSearch {
+        private SearchState state = new SearchState(numVertices);
+        private IndexedMinHeap heap = new IndexedMinHeap(Math.max(numVertices, 1));
+        
+        private void reset() {
+            state.reset(numVertices);
+            if (heap.capacity() < numVertices) {
+                heap = new IndexedMinHeap(Math.max(numVertices, 2 * heap.capacity()));
+            } else {
+                heap.clear();
+            }
+        }
+    }
+    
+    /* the PointSearch objects that no search is using, as for freeSearches */
+    private ConcurrentLinkedQueue<PointSearch> freePointSearches =
+        new ConcurrentLinkedQueue<PointSearch>();
+    
+    /*
+     * borrowPointSearch - private helper method that takes a
+     * PointSearch from the pool, or makes a new one if the pool is
+     * empty, and resets it for a new search.  The caller must give it
+     * back with releasePointSearch.
+     */
+    private PointSearch borrowPointSearch() {
+        PointSearch search = freePointSearches.poll();
+        if (search == null) {
+            return new PointSearch();
+        }
+        search.reset();
+        return search;
+    }
+    
+    /*
+     * releasePointSearch - private helper method that returns a
+     * PointSearch from borrowPointSearch to the pool.
+     */
+    private void releasePointSearch(PointSearch search) {
+        freePointSearches.add(search);
+    }
+    
+    /*
+     * route - private helper method that builds the Route that ends
+     * with vertex v, following the parents recorded in the specified
+     * state back to the start.
+     */
+    private Route route(SearchState state, int v, double cost, int numSettled) {
+        int length = 0;
+        for (int u = v; u != -1; u = state.parent(u)) {
+            length++;
+        }
+        String[] ids = new String[length];
+        for (int u = v, i = length - 1; u != -1; u = state.parent(u), i--) {
+            ids[i] = vertexArray[u].id;
+        }
+        return new Route(ids, cost, numSettled);
+    }
+    
+    /**
+     * shortestPath - apply Dijkstra's algorithm to find a shortest
+     * path from the vertex with ID fromID to the vertex with ID toID.
+     * Returns null if there is no such path.
+     *
+     * Unlike shortestPaths, it stops as soon as the destination is
+     * finalized, and it resets its state and heap in time
+     * proportional to what the previous search touched, so a nearby
+     * destination only costs the part of the graph closer to the
+     * start than it is.
+     */
+    public Route shortestPath(String fromID, String toID) {
+        return aStar(fromID, toID, null);
+    }
+    
+    /**
+     * aStar - apply the A* algorithm to find a shortest path from the
+     * vertex with ID fromID to the vertex with ID toID, using the
+     * specified heuristic, which must be consistent (see Heuristic).
+     * Returns null if there is no such path.  If heuristic is null,
+     * every estimate is 0 and this is Dijkstra's algorithm.
+     *
+     * It works like Dijkstra's algorithm, except that the vertex
+     * finalized next is the one with the smallest cost so far plus
+     * estimated cost to the destination, so the search heads towards
+     * the destination rather than spreading out in every direction.
+     */
+    public Route aStar(String fromID, String toID, Heuristic heuristic) {
+        Vertex from = getVertex(fromID);
+        if (from == null) {
+            throw new IllegalArgumentException("no such vertex: " + fromID);
+        }
+        Vertex to = getVertex(toID);
+        if (to == null) {
+            throw new IllegalArgumentException("no such vertex: " + toID);
+        }
+        
+        PointSearch search = borrowPointSearch();
+        try {
+            return aStar(from, to, heuristic, search);
+        } finally {
+            releasePointSearch(search);
+        }
+    }
+    
+    private Route aStar(Vertex from, Vertex to, Heuristic heuristic, PointSearch search) {
+        SearchState state = search.state;
+        IndexedMinHeap heap = search.heap;
+        int numSettled = 0;
+        
+        state.setCost(from.index, 0);
+        heap.insert(from.index, estimate(heuristic, from, to));
+        
+        while (!heap.isEmpty()) {
+            /* Finalize the vertex with the minimal estimated total cost. */
+            int w = heap.removeMin();
+            state.setDone(w);
+            numSettled++;
+            if (w == to.index) {
+                return route(state, w, state.cost(w), numSettled);
             }
             
-            /* 
-             * If no such edge exists, we're done.
-             */
-            if (edgeToAdd == null) {
-                return;
+            /* Try to improve the costs of w's unfinalized neighbors. */
+            for (Edge e = vertexArray[w].edges; e != null; e = e.next) {
+                int x = e.end.index;
+                if (!state.isDone(x)) {
+                    double cost_via_w = state.cost(w) + e.cost;
+                    if (cost_via_w < state.cost(x)) {
+                        state.setCost(x, cost_via_w);
+                        state.setParent(x, w);
+                        heap.insertOrDecrease(x, cost_via_w + estimate(heuristic, e.end, to));
+                    }
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /* estimate - returns the heuristic's estimate, or 0 if there is no heuristic */
+    private static double estimate(Heuristic heuristic, Vertex v, Vertex to) {
+        return (heuristic == null ? 0 : heuristic.estimate(v.id, to.id));
+    }
+    
+    /**
+     * bidirectionalShortestPath - find a shortest path from the vertex
+     * with ID fromID to the vertex with ID toID by running Dijkstra's
+     * algorithm forwards from the start and backwards (along the
+     * edges entering each vertex) from the destination at the same
+     * time.  Returns null if there is no such path.
+     *
+     * Each step finalizes a vertex on the side whose next vertex is
+     * closer.  Whenever an edge reaches a vertex that the other side
+     * has reached, the path through it is a candidate, and best is the
+     * cost of the cheapest candidate so far.  Once the two sides'
+     * next costs add up to at least best, no cheaper path remains.
+     * The two searches together usually explore far less of the graph
+     * than one search from the start would.
+     */
+    public Route bidirectionalShortestPath(String fromID, String toID) {
+        Vertex from = getVertex(fromID);
+        if (from == null) {
+            throw new IllegalArgumentException("no such vertex: " + fromID);
+        }
+        Vertex to = getVertex(toID);
+        if (to == null) {
+            throw new IllegalArgumentException("no such vertex: " + toID);
+        }
+        
+        PointSearch forward = borrowPointSearch();
+        PointSearch backward = borrowPointSearch();
+        try {
+            return bidirectionalShortestPath(from, to, forward, backward);
+        } finally {
+            releasePointSearch(forward);
+            releasePointSearch(backward);
+        }
+    }
+    
+    private Route bidirectionalShortestPath(Vertex from, Vertex to,
+                                            PointSearch forward, PointSearch backward) {
+        forward.state.setCost(from.index, 0);
+        forward.heap.insert(from.index, 0);
+        backward.state.setCost(to.index, 0);
+        backward.heap.insert(to.index, 0);
+        
+        double best = (from == to ? 0 : Double.POSITIVE_INFINITY);
+        int meet = (from == to ? from.index : -1);
+        int numSettled = 0;
+        
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            double forwardMin = forward.heap.keyOf(forward.heap.peekMin());
+            double backwardMin = backward.heap.keyOf(backward.heap.peekMin());
+            if (forwardMin + backwardMin >= best) {
+                break;
+            }
+            
+            /* Finalize the closer of the two sides' next vertices. */
+            boolean isForward = (forwardMin <= backwardMin);
+            PointSearch side = (isForward ? forward : backward);
+            SearchState other = (isForward ? backward : forward).state;
+            int w = side.heap.removeMin();
+            side.state.setDone(w);
+            numSettled++;
+            
+            Edge e = (isForward ? vertexArray[w].edges : vertexArray[w].inEdges);
+            while (e != null) {
+                int x = (isForward ? e.end.index : e.start.index);
+                if (!side.state.isDone(x)) {
+                    double cost_via_w = side.state.cost(w) + e.cost;
+                    if (cost_via_w < side.state.cost(x)) {
+                        side.state.setCost(x, cost_via_w);
+                        side.state.setParent(x, w);
+                        side.heap.insertOrDecrease(x, cost_via_w);
+                    }
+                }
+                
+                double through_x = side.state.cost(x) + other.cost(x);
+                if (through_x < best) {
+                    best = through_x;
+                    meet = x;
+                }
+                e = (isForward ? e.next : e.nextIn);
+            }
+        }
+        
+        if (meet == -1) {
+            return null;
+        }
+        
+        /*
+         * The forward parents lead from meet back to the start, and the
+         * backward parents lead from meet on to the destination.
+         */
+        Route first = route(forward.state, meet, best, numSettled);
+        ArrayList<String> path = new ArrayList<String>(Arrays.asList(first.vertices()));
+        for (int u = backward.state.parent(meet); u != -1; u = backward.state.parent(u)) {
+            path.add(vertexArray[u].id);
+        }
+        return new Route(path.toArray(new String[0]), best, numSettled);
+    }
+    
+    /**
+     * prim - apply Prim's algorithm starting from the specified
+     * vertex to find a minimum spanning tree for the graph, printing
+     * the edges in the order in which they are added.
+     * The method assumes that the graph is connected.
+     */
+    public void prim(String originID) {
+        SpanningTree tree = minSpanningTree(originID);
+        for (int i = 0; i < tree.numEdges(); i++) {
+            System.out.println("\tadding edge (" + idOf(tree.start(i)) + ", " +
+              idOf(tree.end(i)) + ")");
+        }
+    }
+    
+    /**
+     * minSpanningTree - apply Prim's algorithm starting from the
+     * specified vertex to find a minimum spanning tree for the part of
+     * the graph that can be reached from it, and return its edges.
+     *
+     * The "done" flags in the search state are used to divide the
+     * vertices into two sets.  Initially, the origin is in one set
+     * (the one containing vertices that are done), and all other
+     * vertices are in a second set (the one containing vertices that
+     * aren't done).  We repeatedly add the lowest-cost edge joining a
+     * vertex in the first set to a vertex in the second set, and then
+     * we move the vertex in the second set to the first set by
+     * marking it as done.
+     *
+     * Rather than scanning every edge of every done vertex to find
+     * the edge to add, the edges leaving the done vertices are kept
+     * in a priority queue ordered by cost.  Edges whose end vertex
+     * has become done since they were added are simply skipped when
+     * they reach the front (a "lazy" Prim's algorithm), which takes
+     * O(E log E) time in all.
+     */
+    public SpanningTree minSpanningTree(String originID) {
+        Vertex origin = getVertex(originID);
+        if (origin == null) {
+            throw new IllegalArgumentException("no such vertex: " + originID);
+        }
+        
+        SearchState state = borrowSearch();
+        try {
+            return minSpanningTree(origin, state);
+        } finally {
+            releaseSearch(state);
+        }
+    }
+    
+    private SpanningTree minSpanningTree(Vertex origin, SearchState state) {
+        /* Mark the origin as done. */
+        state.setDone(origin.index);
+        
+        PriorityQueue<Edge> edgesOut = new PriorityQueue<Edge>(
+            Comparator.comparingDouble((Edge e) -> e.cost));
+        for (Edge e = origin.edges; e != null; e = e.next) {
+            edgesOut.add(e);
+        }
+        
+        int[] starts = new int[numVertices];
+        int[] ends = new int[numVertices];
+        double[] costs = new double[numVertices];
+        int numTreeEdges = 0;
+        
+        while (!edgesOut.isEmpty()) {
+            /* Take the minimal-cost edge, unless both its vertices are done. */
+            Edge edgeToAdd = edgesOut.remove();
+            Vertex v = edgeToAdd.end;
+            if (state.isDone(v.index)) {
+                continue;
             }
             
             /* Add the edge and mark its end vertex done. */
-            System.out.println("\tadding edge (" + edgeToAdd.start.id + ", " +
-              edgeToAdd.end.id + ")");
-            edgeToAdd.end.parent = edgeToAdd.start;
-            edgeToAdd.end.done = true;
+            starts[numTreeEdges] = edgeToAdd.start.index;
+            ends[numTreeEdges] = v.index;
+            costs[numTreeEdges] = edgeToAdd.cost;
+            numTreeEdges++;
+            state.setParent(v.index, edgeToAdd.start.index);
+            state.setDone(v.index);
+            
+            for (Edge e = v.edges; e != null; e = e.next) {
+                if (!state.isDone(e.end.index)) {
+                    edgesOut.add(e);
+                }
+            }
         }
+        
+        return new SpanningTree(this, Arrays.copyOf(starts, numTreeEdges),
+                                Arrays.copyOf(ends, numTreeEdges),
+                                Arrays.copyOf(costs, numTreeEdges));
+    }
+    
+    /**
+     * kruskal - apply Kruskal's algorithm to find a minimum spanning
+     * forest for the whole graph, treating each edge as undirected.
+     * See CsrGraph.kruskal, which does the work on a compressed copy
+     * of the graph; the vertex numbers are the same as in this graph.
+     */
+    public SpanningTree kruskal() {
+        return toCsr().kruskal();
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,318 @@
+/*
+ * GraphLoader.java
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Loads the edges in a text file into a Graph.  Each line of the file
+ * has the form
+ *     <start vertex id> <end vertex id> <cost>
+ * with the fields separated by spaces or tabs.  The ids are decoded
+ * as UTF-8.
+ *
+ * The file is memory-mapped and split into chunks at line boundaries.
+ * Each chunk is parsed straight from the mapped bytes, without a
+ * Scanner or regular expressions.  The chunks can be parsed in
+ * parallel.  Each chunk numbers its own ids in the order in which they
+ * first appear, and stores its edges in arrays that use these numbers.
+ * Once every chunk has been parsed, the chunks are added to the graph
+ * in file order, with one hash lookup per distinct id per chunk rather
+ * than two per edge.  Vertex numbers and adjacency lists end up exactly
+ * as if the edges had been added one line at a time.
+ *
+ * A line that can't be parsed causes an IllegalArgumentException that
+ * gives its line number.  In that case nothing is added to the graph.
+ */
+public class GraphLoader {
+    /* the largest chunk that is mapped and parsed as a unit */
+    private static final long MAX_CHUNK = 1L << 30;
+    
+    /* the smallest chunk worth parsing in a task of its own */
+    private static final long MIN_PARALLEL_CHUNK = 1L << 20;
+    
+    /*
+     * Chunk - parses the lines in one mapped region of the file.  If a
+     * line is bad, parsing stops, badLine is set to the line's number
+     * within the chunk (starting from 1) and badText to its contents.
+     */
+    private static class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private MappedByteBuffer buf;
+        
+        private ArrayList<String> names = new ArrayList<String>();
+        private HashMap<String, Integer> numbers = new HashMap<String, Integer>();
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private double[] costs = new double[16];
+        private int numEdges;
+        private int numLines;
+        
+        private int badLine;
+        private String badText;
+        
+        private byte[] token = new byte[64];
+        
+        private Chunk(MappedByteBuffer buf) {
+            this.buf = buf;
+        }
+        
+        protected void compute() {
+            int limit = buf.limit();
+            int pos = 0;
+            
+            while (pos < limit) {
+                int eol = pos;
+                while (eol < limit && buf.get(eol) != '\n') {
+                    eol++;
+                }
+                numLines++;
+                
+                try {
+                    parseLine(pos, eol);
+                } catch (NumberFormatException e) {
+                    badLine = numLines;
+                    int end = (eol > pos && buf.get(eol - 1) == '\r' ? eol - 1 : eol);
+                    badText = text(pos, end);
+                    return;
+                }
+                pos = eol + 1;
+            }
+        }
+        
+        /*
+         * parseLine - parses the line in buf[pos:eol - 1] and records
+         * its edge, throwing a NumberFormatException if the line is
+         * invalid.  As with a Scanner, anything after the cost is
+         * ignored.
+         */
+        private void parseLine(int pos, int eol) {
+            int from = skipSpaces(pos, eol);
+            int to = skipToken(from, eol);
+            int start = number(from, to);
+            
+            from = skipSpaces(to, eol);
+            to = skipToken(from, eol);
+            int end = number(from, to);
+            
+            from = skipSpaces(to, eol);
+            to = skipToken(from, eol);
+            double cost = parseCost(from, to);
+            
+            if (numEdges == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * numEdges);
+                ends = Arrays.copyOf(ends, 2 * numEdges);
+                costs = Arrays.copyOf(costs, 2 * numEdges);
+            }
+            starts[numEdges] = start;
+            ends[numEdges] = end;
+            costs[numEdges] = cost;
+            numEdges++;
+        }
+        
+        /*
+         * skipSpaces - returns the position of the first character at or
+         * after pos that isn't a space, throwing an exception if the
+         * rest of the line is blank.
+         */
+        private int skipSpaces(int pos, int eol) {
+            while (pos < eol && isSpace(buf.get(pos))) {
+                pos++;
+            }
+            if (pos == eol) {
+                throw new NumberFormatException("missing field");
+            }
+            return pos;
+        }
+        
+        /* skipToken - returns the position of the first space at or after pos */
+        private int skipToken(int pos, int eol) {
+            while (pos < eol && !isSpace(buf.get(pos))) {
+                pos++;
+            }
+            return pos;
+        }
+        
+        /*
+         * number - returns this chunk's number for the id in
+         * buf[from:to - 1], giving it the next number if it is new.
+         */
+        private int number(int from, int to) {
+            String id = text(from, to);
+            Integer n = numbers.get(id);
+            if (n == null) {
+                n = names.size();
+                names.add(id);
+                numbers.put(id, n);
+            }
+            return n;
+        }
+        
+        /*
+         * parseCost - parses the number in buf[from:to - 1].  Numbers
+         * that consist of an optional sign, at most 15 digits and an
+         * optional decimal point are converted by hand: both the digits
+         * and the power of ten are exact doubles, so a single division
+         * gives the correctly rounded value.  Anything else is handed
+         * to Double.parseDouble, which throws a NumberFormatException
+         * if the number is invalid.
+         */
+        private double parseCost(int from, int to) {
+            int i = from;
+            boolean negative = false;
+            if (buf.get(i) == '-' || buf.get(i) == '+') {
+                negative = (buf.get(i) == '-');
+                i++;
+            }
+            
+            long digits = 0;
+            int numDigits = 0;
+            int fractionDigits = -1;      // -1 until the decimal point
+            for ( ; i < to; i++) {
+                byte b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    digits = 10*digits + (b - '0');
+                    numDigits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    break;
+                }
+            }
+            
+            if (i == to && numDigits > 0 && numDigits <= 15) {
+                double value = digits;
+                if (fractionDigits > 0) {
+                    value /= POWERS_OF_TEN[fractionDigits];
+                }
+                return (negative ? -value : value);
+            }
+            
+            return Double.parseDouble(text(from, to));
+        }
+        
+        /* text - decodes buf[from:to - 1] as a UTF-8 string */
+        private String text(int from, int to) {
+            int len = to - from;
+            if (len > token.length) {
+                token = new byte[Math.max(len, 2 * token.length)];
+            }
+            buf.get(from, token, 0, len);
+            return new String(token, 0, len, StandardCharsets.UTF_8);
+        }
+    }
+    
+    /* POWERS_OF_TEN[i] is 10^i; all of these are exact doubles */
+    private static final double[] POWERS_OF_TEN = new double[16];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+        }
+    }
+    
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+    
+    /**
+     * load - adds the edges in the specified file to the graph,
+     * parsing the file in one thread.
+     */
+    public static void load(Graph graph, Path file) throws IOException {
+        load(graph, file, false);
+    }
+    
+    /**
+     * load - adds the edges in the specified file to the graph.  If
+     * parallel is true, chunks of the file are parsed at the same time
+     * in the common fork/join pool; the result is the same either way.
+     */
+    public static void load(Graph graph, Path file, boolean parallel) throws IOException {
+        ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = MAX_CHUNK;
+            if (parallel) {
+                int numChunks = 4 * Runtime.getRuntime().availableProcessors();
+                chunkSize = Math.min(MAX_CHUNK, Math.max(MIN_PARALLEL_CHUNK, size / numChunks + 1));
+            }
+            
+            long start = 0;
+            while (start < size) {
+                long end = lineEnd(channel, Math.min(start + chunkSize, size));
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException(file + " has a line that is too long");
+                }
+                chunks.add(new Chunk(channel.map(FileChannel.MapMode.READ_ONLY,
+                                                 start, end - start)));
+                start = end;
+            }
+        }
+        
+        if (parallel) {
+            RecursiveAction.invokeAll(chunks);
+        } else {
+            for (Chunk chunk : chunks) {
+                chunk.compute();
+            }
+        }
+        
+        /* Report the first bad line, if any, before changing the graph. */
+        long linesBefore = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.badText != null) {
+                long lineNum = linesBefore + chunk.badLine;
+                throw new IllegalArgumentException("invalid input line " + lineNum +
+                                                   ": " + chunk.badText);
+            }
+            linesBefore += chunk.numLines;
+        }
+        
+        for (Chunk chunk : chunks) {
+            int[] vertex = new int[chunk.names.size()];
+            for (int i = 0; i < vertex.length; i++) {
+                vertex[i] = graph.intern(chunk.names.get(i));
+            }
+            for (int i = 0; i < chunk.numEdges; i++) {
+                graph.addEdge(vertex[chunk.starts[i]], vertex[chunk.ends[i]], chunk.costs[i]);
+            }
+        }
+    }
+    
+    /*
+     * lineEnd - returns the position just after the first newline at
+     * or after pos, or the size of the file if there is none.
+     */
+    private static long lineEnd(FileChannel channel, long pos) throws IOException {
+        long size = channel.size();
+        if (pos >= size) {
+            return size;
+        }
+        
+        ByteBuffer bytes = ByteBuffer.allocate(8192);
+        while (pos < size) {
+            bytes.clear();
+            int n = channel.read(bytes, pos);
+            for (int i = 0; i < n; i++) {
+                if (bytes.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += Math.max(n, 0);
+        }
+        return size;
+    }
+}
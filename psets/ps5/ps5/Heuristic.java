@@ -0,0 +1,17 @@
+/*
+ * Heuristic.java
+ */
+
+/*
+ * An interface for the heuristic functions used by A* search, such
+ * as Graph.aStar.  estimate returns an estimate of the cost of the
+ * cheapest path between two vertices.  For A* to find a shortest path
+ * while finalizing each vertex only once, the estimate must be
+ * consistent: it must never be more than the cost of an edge (u, v)
+ * plus the estimate from v, and it must be 0 from a vertex to itself.
+ * A consistent estimate never overestimates the true cost.
+ */
+public interface Heuristic {
+    /* returns an estimate of the cost of the cheapest path from fromID to toID */
+    double estimate(String fromID, String toID);
+}
@@ -0,0 +1,185 @@
+/*
+ * IndexedMinHeap.java
+ */
+
+/*
+ * A binary min-heap of the ints 0 ... capacity - 1, each with a
+ * double priority.  Because the items are small ints, the heap can
+ * keep track of where each item is stored, which lets it support
+ * decreaseKey in O(log n) time -- the operation that Dijkstra's and
+ * Prim's algorithms perform when they find a cheaper path or edge.
+ */
+public class IndexedMinHeap {
+    private int[] heap;        // heap[i] is the item in position i
+    private int[] position;    // position[item] is its index in heap, or -1
+    private double[] key;      // key[item] is the item's priority
+    private int size;
+    
+    /*
+     * Constructs an empty heap for the items 0 ... capacity - 1.
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new double[capacity];
+        for (int i = 0; i < capacity; i++) {
+            position[i] = -1;
+        }
+    }
+    
+    /* returns true if the heap is empty, and false otherwise */
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+    
+    /* returns the number of items in the heap */
+    public int size() {
+        return size;
+    }
+    
+    /* returns true if the specified item is in the heap */
+    public boolean contains(int item) {
+        return position[item] != -1;
+    }
+    
+    /* returns the number of items the heap can hold */
+    public int capacity() {
+        return position.length;
+    }
+    
+    /*
+     * peekMin - returns the item with the smallest priority without
+     * removing it.  Throws an exception if the heap is empty.
+     */
+    public int peekMin() {
+        if (size == 0) {
+            throw new IllegalStateException("heap is empty");
+        }
+        return heap[0];
+    }
+    
+    /*
+     * clear - removes all of the items.  It takes time proportional to
+     * the number of items in the heap rather than its capacity, so a
+     * heap can be reused cheaply by searches that touch few items.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+    
+    /* returns the priority of the specified item, which must be in the heap */
+    public double keyOf(int item) {
+        return key[item];
+    }
+    
+    /*
+     * insert - adds the specified item with the specified priority.
+     * The item must not already be in the heap.
+     */
+    public void insert(int item, double priority) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("item already in heap: " + item);
+        }
+        key[item] = priority;
+        heap[size] = item;
+        position[item] = size;
+        size++;
+        siftUp(size - 1);
+    }
+    
+    /*
+     * decreaseKey - lowers the priority of the specified item, which
+     * must be in the heap, to the specified value.
+     */
+    public void decreaseKey(int item, double priority) {
+        if (!contains(item) || priority > key[item]) {
+            throw new IllegalArgumentException("cannot decrease key of " + item);
+        }
+        key[item] = priority;
+        siftUp(position[item]);
+    }
+    
+    /*
+     * insertOrDecrease - inserts the item if it isn't in the heap, and
+     * otherwise lowers its priority if the new one is smaller.
+     */
+    public void insertOrDecrease(int item, double priority) {
+        if (!contains(item)) {
+            insert(item, priority);
+        } else if (priority < key[item]) {
+            key[item] = priority;
+            siftUp(position[item]);
+        }
+    }
+    
+    /*
+     * removeMin - removes and returns the item with the smallest
+     * priority.  Throws an exception if the heap is empty.
+     */
+    public int removeMin() {
+        if (size == 0) {
+            throw new IllegalStateException("heap is empty");
+        }
+        
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+    
+    /*
+     * siftUp - moves the item in position i up the heap until its
+     * parent's priority is no larger than its own.
+     */
+    private void siftUp(int i) {
+        int item = heap[i];
+        double k = key[item];
+        
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (key[heap[parent]] <= k) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        
+        heap[i] = item;
+        position[item] = i;
+    }
+    
+    /*
+     * siftDown - moves the item in position i down the heap until
+     * neither of its children has a smaller priority.
+     */
+    private void siftDown(int i) {
+        int item = heap[i];
+        double k = key[item];
+        int child = 2*i + 1;
+        
+        while (child < size) {
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (k <= key[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+            child = 2*i + 1;
+        }
+        
+        heap[i] = item;
+        position[item] = i;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Route.java
+ */
+
+/*
+ * The result of a point-to-point shortest-path search: the ids of the
+ * vertices on the path, in order, and its total cost.  It also records
+ * how many vertices the search finalized, as a measure of how much of
+ * the graph it had to explore.
+ */
+public class Route {
+    private String[] ids;
+    private double cost;
+    private int numSettled;
+    
+    public Route(String[] ids, double cost, int numSettled) {
+        this.ids = ids;
+        this.cost = cost;
+        this.numSettled = numSettled;
+    }
+    
+    /* returns the ids of the vertices on the path, from the start to the end */
+    public String[] vertices() {
+        return ids.clone();
+    }
+    
+    /* returns the total cost of the path */
+    public double cost() {
+        return cost;
+    }
+    
+    /* returns the number of vertices that the search finalized */
+    public int numSettled() {
+        return numSettled;
+    }
+    
+    /*
+     * toString - returns the path in the same form as Graph's
+     * pathString, followed by its cost.
+     */
+    public String toString() {
+        return String.join(" -> ", ids) + " (cost = " + cost + ")";
+    }
+}
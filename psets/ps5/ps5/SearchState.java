@@ -0,0 +1,124 @@
+/*
+ * SearchState.java
+ */
+
+import java.util.Arrays;
+
+/*
+ * The per-vertex state of one run of a graph algorithm: whether each
+ * vertex has been encountered and whether it is done, its parent in
+ * the spanning tree being built, and the cost of the best known path
+ * to it.  Vertices are identified by their numbers.
+ *
+ * Rather than resetting every vertex at the start of a run, each
+ * vertex is stamped with the epoch (the number of the run) in which
+ * it was last touched.  A vertex whose stamp is out of date has the
+ * starting values -- not encountered, not done, no parent (-1) and an
+ * infinite cost -- so reset takes O(1) time and a run that touches
+ * only a few vertices costs only a few vertices' worth of work.
+ *
+ * Keeping this state out of the graph lets several runs share one
+ * graph at the same time, each with its own SearchState.  A single
+ * SearchState must only be used by one run at a time.
+ */
+public class SearchState {
+    private static final byte ENCOUNTERED = 1;
+    private static final byte DONE = 2;
+    
+    private int epoch = 1;
+    private int[] stamp;       // stamp[v] == epoch if v was touched in this run
+    private byte[] flags;
+    private int[] parent;
+    private double[] cost;
+    
+    /*
+     * Constructs a SearchState for a graph with the specified number
+     * of vertices.
+     */
+    public SearchState(int numVertices) {
+        stamp = new int[numVertices];
+        flags = new byte[numVertices];
+        parent = new int[numVertices];
+        cost = new double[numVertices];
+    }
+    
+    /*
+     * reset - gives every vertex its starting values, for a new run on
+     * a graph with the specified number of vertices.
+     */
+    public void reset(int numVertices) {
+        if (numVertices > stamp.length) {
+            int capacity = Math.max(numVertices, 2 * stamp.length);
+            stamp = new int[capacity];
+            flags = new byte[capacity];
+            parent = new int[capacity];
+            cost = new double[capacity];
+            epoch = 1;
+            return;
+        }
+        
+        epoch++;
+        if (epoch == 0) {
+            /* The stamps have wrapped around, so clear them all. */
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+    
+    /*
+     * touch - gives vertex v its starting values if it hasn't been
+     * touched yet in this run.
+     */
+    private void touch(int v) {
+        if (stamp[v] != epoch) {
+            stamp[v] = epoch;
+            flags[v] = 0;
+            parent[v] = -1;
+            cost[v] = Double.POSITIVE_INFINITY;
+        }
+    }
+    
+    /* returns true if vertex v has been encountered in this run */
+    public boolean isEncountered(int v) {
+        return stamp[v] == epoch && (flags[v] & ENCOUNTERED) != 0;
+    }
+    
+    /* returns true if vertex v is done in this run */
+    public boolean isDone(int v) {
+        return stamp[v] == epoch && (flags[v] & DONE) != 0;
+    }
+    
+    /* returns the parent of vertex v, or -1 if it has none */
+    public int parent(int v) {
+        return (stamp[v] == epoch ? parent[v] : -1);
+    }
+    
+    /* returns the cost of the best known path to vertex v */
+    public double cost(int v) {
+        return (stamp[v] == epoch ? cost[v] : Double.POSITIVE_INFINITY);
+    }
+    
+    /* marks vertex v as encountered */
+    public void setEncountered(int v) {
+        touch(v);
+        flags[v] |= ENCOUNTERED;
+    }
+    
+    /* marks vertex v as done */
+    public void setDone(int v) {
+        touch(v);
+        flags[v] |= DONE;
+    }
+    
+    /* sets the parent of vertex v */
+    public void setParent(int v, int p) {
+        touch(v);
+        parent[v] = p;
+    }
+    
+    /* sets the cost of the best known path to vertex v */
+    public void setCost(int v, double c) {
+        touch(v);
+        cost[v] = c;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * ShortestPaths.java
+ */
+
+/*
+ * The result of a single-source shortest-path computation: for each
+ * vertex, the total cost of the shortest path from the origin and the
+ * vertex that precedes it on that path.  Unreachable vertices have an
+ * infinite cost and no parent.
+ */
+public class ShortestPaths {
+    private VertexIds graph;
+    private int origin;
+    private double[] cost;     // cost[v] is the cost of the shortest path to v
+    private int[] parent;      // parent[v] precedes v on that path, or is -1
+    
+    public ShortestPaths(VertexIds graph, int origin, double[] cost, int[] parent) {
+        this.graph = graph;
+        this.origin = origin;
+        this.cost = cost;
+        this.parent = parent;
+    }
+    
+    /* returns the id of the origin vertex */
+    public String origin() {
+        return graph.idOf(origin);
+    }
+    
+    /* returns the cost of the shortest path to vertex number v */
+    public double cost(int v) {
+        return cost[v];
+    }
+    
+    /* returns the number of the vertex before v on its shortest path, or -1 */
+    public int parent(int v) {
+        return parent[v];
+    }
+    
+    /*
+     * cost - returns the cost of the shortest path to the vertex with
+     * the specified id, or infinity if it can't be reached.
+     */
+    public double cost(String id) {
+        return cost[index(id)];
+    }
+    
+    /* returns true if the vertex with the specified id can be reached */
+    public boolean isReachable(String id) {
+        return cost(id) != Double.POSITIVE_INFINITY;
+    }
+    
+    /*
+     * pathString - returns a string that specifies the shortest path
+     * from the origin to the vertex with the specified id, in the same
+     * form as Graph's pathString, or null if it can't be reached.
+     */
+    public String pathString(String id) {
+        int v = index(id);
+        if (cost[v] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        
+        /* Follow the parents back to the origin, then build the string forwards. */
+        int length = 0;
+        for (int u = v; u != -1; u = parent[u]) {
+            length++;
+        }
+        String[] ids = new String[length];
+        for (int u = v, i = length - 1; u != -1; u = parent[u], i--) {
+            ids[i] = graph.idOf(u);
+        }
+        return String.join(" -> ", ids);
+    }
+    
+    private int index(String id) {
+        int v = graph.indexOf(id);
+        if (v == -1) {
+            throw new IllegalArgumentException("no such vertex: " + id);
+        }
+        return v;
+    }
+    
+    /*
+     * toString - returns a line for each reachable vertex giving its
+     * cost and its parent, in order of vertex number.
+     */
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int v = 0; v < cost.length; v++) {
+            if (cost[v] != Double.POSITIVE_INFINITY) {
+                str.append(graph.idOf(v)).append(" (cost = ").append(cost[v]);
+                if (parent[v] != -1) {
+                    str.append(", parent = ").append(graph.idOf(parent[v]));
+                }
+                str.append(")\n");
+            }
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SpanningTree.java
+ */
+
+/*
+ * The result of a minimum spanning tree computation: the edges of the
+ * tree, in the order in which they were added, and their total cost.
+ * If the graph isn't connected, the edges form a spanning tree of
+ * just the part that was reached, or a spanning forest.
+ */
+public class SpanningTree {
+    private VertexIds graph;
+    private int[] starts;      // edge i joins vertex starts[i] ...
+    private int[] ends;        // ... to vertex ends[i] ...
+    private double[] costs;    // ... and costs costs[i]
+    private double totalCost;
+    
+    public SpanningTree(VertexIds graph, int[] starts, int[] ends, double[] costs) {
+        if (starts.length != ends.length || starts.length != costs.length) {
+            throw new IllegalArgumentException("edge arrays have different lengths");
+        }
+        this.graph = graph;
+        this.starts = starts;
+        this.ends = ends;
+        this.costs = costs;
+        for (double cost : costs) {
+            totalCost += cost;
+        }
+    }
+    
+    /* returns the number of edges in the tree */
+    public int numEdges() {
+        return starts.length;
+    }
+    
+    /* returns the number of the start vertex of edge i */
+    public int start(int i) {
+        return starts[i];
+    }
+    
+    /* returns the number of the end vertex of edge i */
+    public int end(int i) {
+        return ends[i];
+    }
+    
+    /* returns the cost of edge i */
+    public double cost(int i) {
+        return costs[i];
+    }
+    
+    /* returns the total cost of the edges in the tree */
+    public double totalCost() {
+        return totalCost;
+    }
+    
+    /*
+     * toString - returns a line for each edge, in the form that
+     * Graph's prim prints, followed by the total cost.
+     */
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < starts.length; i++) {
+            str.append("\tadding edge (").append(graph.idOf(starts[i])).append(", ")
+               .append(graph.idOf(ends[i])).append(")\n");
+        }
+        str.append("total cost = ").append(totalCost).append("\n");
+        return str.toString();
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * VertexIds.java
+ */
+
+/*
+ * An interface for graphs whose vertices are numbered 0 ... n - 1,
+ * which lets the results of the graph algorithms be stored in arrays
+ * indexed by vertex number and still be looked up by vertex id.
+ */
+public interface VertexIds {
+    /* returns the number of vertices */
+    int numVertices();
+    
+    /* returns the number of the vertex with the specified id, or -1 if there is none */
+    int indexOf(String id);
+    
+    /* returns the id of the vertex with the specified number */
+    String idOf(int index);
+}